@@ -5,4 +5,10 @@ import it.unisa.rookie.board.Transition;
 
 public interface ArtificialIntelligencePlayer {
   Transition play(Board startingBoard);
+
+  // Asks the search running in play() (or the next one, if it has not started
+  // yet) to end as soon as possible, with the best move found so far. Called
+  // from another thread.
+  default void stop() {
+  }
 }
@@ -18,4 +18,16 @@ public class ArtificialIntelligenceTask extends Task<Transition> {
   protected Transition call() throws Exception {
     return ai.play(gameBoard);
   }
+
+  // The search doesn't look at the interrupted flag of its thread: it is told to
+  // stop through ai.stop(), and ends by itself (App cancels with
+  // cancel(false), so that the thread is not interrupted at all)
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    boolean cancelled = super.cancel(mayInterruptIfRunning);
+    if (cancelled) {
+      ai.stop();
+    }
+    return cancelled;
+  }
 }
@@ -0,0 +1,874 @@
+package it.unisa.rookie.ai;
+
+import it.unisa.rookie.board.BitBoard;
+import it.unisa.rookie.board.Board;
+import it.unisa.rookie.board.HistoryTable;
+import it.unisa.rookie.board.Move;
+import it.unisa.rookie.board.MoveGenerator;
+import it.unisa.rookie.board.MoveList;
+import it.unisa.rookie.board.MovePicker;
+import it.unisa.rookie.board.PackedMove;
+import it.unisa.rookie.board.Transition;
+import it.unisa.rookie.board.evaluation.Evaluator;
+import it.unisa.rookie.piece.ChessPieceType;
+import it.unisa.rookie.piece.Color;
+import java.util.EnumSet;
+import java.util.Random;
+
+// The search shared by the AI players: a single negamax function (the score of
+// a position is the opposite of the score of its best child, both seen by the
+// player to move) instead of a max() and a min() for each player, configured by
+// a set of SearchOptions.
+// See: https://www.chessprogramming.org/Negamax
+//
+// With ITERATIVE_DEEPENING it searches one ply deeper at each iteration (1, 2,
+// ... plies). With a time budget the search goes on until the time is over, and
+// the best move of the last completed iteration is played: an iteration stopped
+// by the clock is thrown away. Otherwise it stops after the iteration at the
+// player depth. Each iteration searches first the principal variation found by
+// the previous one, and the transposition table remembers the best moves of the
+// other nodes.
+// See: https://www.chessprogramming.org/Iterative_Deepening
+//
+// With more than one thread (and a transposition table) the search is a "Lazy
+// SMP": helper threads search the same root at the same time, half of them one
+// ply deeper than the others, each on its own copy of the board and with its own
+// killer moves and history. They share nothing but the transposition table, so
+// what they find makes the cutoffs and the hash moves of the main search better.
+// Only the main search (the calling thread) chooses the move, and the helpers
+// stop when it ends.
+// See: https://www.chessprogramming.org/Lazy_SMP
+//
+// Any search can also be stopped from another thread (stop()) or by a limit of
+// examined boards: then the best move of the last completed iteration is
+// played, or the best one found so far if the first iteration didn't end.
+public class NegamaxPlayer implements ArtificialIntelligencePlayer {
+  // Deepest iteration when searching against the clock
+  public static final int MAX_DEPTH = 32;
+
+  // Larger than any evaluation, and still negated without overflowing
+  protected static final int INFINITY = 1000000;
+
+  // Reading the clock at every node would cost more than the node itself
+  private static final int NODES_BETWEEN_CLOCK_CHECKS = 1024;
+
+  // Half width of the first aspiration window: about half a pawn, doubled at
+  // each failed search
+  private static final int ASPIRATION_WINDOW = 50;
+  // The first iterations are too fast (and their scores too rough) to gain anything
+  private static final int ASPIRATION_MIN_DEPTH = 4;
+
+  // The null move is searched NULL_MOVE_REDUCTION plies less deep than the real
+  // ones (one more above NULL_MOVE_DEEP_DEPTH)
+  private static final int NULL_MOVE_REDUCTION = 2;
+  private static final int NULL_MOVE_DEEP_DEPTH = 6;
+  private static final int NULL_MOVE_MIN_DEPTH = 3;
+
+  // Late move reductions start from this move of a node (the first moves are
+  // always searched at full depth) and from this depth
+  private static final int LATE_MOVE_MIN_MOVE_NUMBER = 3;
+  private static final int LATE_MOVE_MIN_DEPTH = 3;
+  // Default reduction: LATE_MOVE_BASE + ln(depth) * ln(moveNumber) / LATE_MOVE_DIVISOR
+  public static final double LATE_MOVE_BASE = 0.5;
+  public static final double LATE_MOVE_DIVISOR = 3.0;
+  private static final int LATE_MOVE_TABLE_SIZE = 64;
+
+  // How much a quiet move could change the evaluation, by depth: a minor piece
+  // one ply from the leaves, a Rook two plies, a Queen three (reverse futility only)
+  private static final int[] FUTILITY_MARGINS = {
+      0,
+      ChessPieceType.KNIGHT.getValue(),
+      ChessPieceType.ROOK.getValue(),
+      ChessPieceType.QUEEN.getValue()
+  };
+  private static final int FUTILITY_MAX_DEPTH = 2;
+  // Positional gain a capture can bring on top of the material, in quiescence
+  private static final int DELTA_MARGIN = 2 * ChessPieceType.PAWN.getValue();
+
+  private static final int KILLER_MOVES_SLOTS = 2;
+
+  protected final int depth;
+  protected final Evaluator evaluator;
+  protected final TranspositionTable transpositionTable;
+  protected int examinedBoards;
+
+  private final String algorithmName;
+  private final EnumSet<SearchOption> options;
+  private final boolean alphaBeta;
+  private final boolean principalVariationSearch;
+  private final boolean randomMoveOrder;
+  private final boolean moveOrdering;
+  private final boolean useKillerMoves;
+  private final boolean quiescenceSearch;
+  private final boolean iterativeDeepening;
+  private final boolean aspirationWindows;
+  private final boolean nullMovePruning;
+  private final boolean lateMoveReductions;
+  private final boolean historyHeuristic;
+  private final boolean countermoves;
+  private final boolean futilityPruning;
+  private final boolean reverseFutilityPruning;
+  private final boolean deltaPruning;
+
+  // The search plays and takes back moves on a single BitBoard: one move list
+  // (or move picker) and two killer moves for each ply
+  private final int maxPly;
+  private final MoveList[] moveLists;
+  private final MovePicker[] movePickers;
+  private final MoveList[] quiescenceMoveLists;
+  // Killer moves are PackedMove values (PackedMove.NONE for an empty slot)
+  private final int[][] killerMoves;
+  // Cutoffs of the quiet moves and countermoves, shared by all the plies
+  private final HistoryTable history;
+  private final Random random = new Random();
+
+  // Plies to take off a late quiet move, by depth and move number
+  private final int[][] lateMoveReductionTable;
+  // Late moves searched with a reduced depth, and the ones searched again at
+  // full depth because they raised alpha anyway
+  private int reducedMoves;
+  private int researchedMoves;
+  // Moves skipped by futility and delta pruning
+  private int prunedMoves;
+
+  // Best move of the root in the current iteration
+  private int rootBestMove;
+
+  // Milliseconds for each move, 0 to search at the player depth
+  private long timeBudget;
+  private long deadline;
+  private boolean stopped;
+  private int nodesUntilClockCheck;
+  private int iterationDepth;
+
+  // Threads searching each move, the calling one included
+  private int threads;
+  // Set for the searches running in the helper threads (they don't log anything)
+  private boolean helper;
+  // Written by another thread to stop the search, read every
+  // NODES_BETWEEN_CLOCK_CHECKS nodes
+  private volatile boolean stopRequested;
+  // The helper searches, created by the first search with more than one thread
+  // and kept for the next ones
+  private NegamaxPlayer[] helpers;
+  // Boards to examine at most for each move (0 for no limit), and the count
+  // when the search started
+  private long nodeLimit;
+  private long firstExaminedBoard;
+
+  // Principal variation of the last completed iteration: the moves, and the keys
+  // of the positions they are played in
+  private final int[] principalVariation;
+  private final long[] principalVariationKeys;
+  private int principalVariationLength;
+
+  // The transposition table is used only with the TRANSPOSITION_TABLE option (it
+  // can be null otherwise). It can be shared by the players of a match, to
+  // remember the positions searched for the previous moves.
+  public NegamaxPlayer(String algorithmName, int depth, Evaluator evaluator,
+                       TranspositionTable transpositionTable, EnumSet<SearchOption> options) {
+    this.algorithmName = algorithmName;
+    this.depth = depth;
+    this.evaluator = evaluator;
+    this.options = EnumSet.copyOf(options);
+    this.alphaBeta = options.contains(SearchOption.ALPHA_BETA);
+    this.principalVariationSearch = alphaBeta
+            && options.contains(SearchOption.PRINCIPAL_VARIATION_SEARCH);
+    this.randomMoveOrder = options.contains(SearchOption.RANDOM_MOVE_ORDER);
+    this.moveOrdering = options.contains(SearchOption.MOVE_ORDERING);
+    this.useKillerMoves = moveOrdering && options.contains(SearchOption.KILLER_MOVES);
+    this.quiescenceSearch = options.contains(SearchOption.QUIESCENCE_SEARCH);
+    this.iterativeDeepening = options.contains(SearchOption.ITERATIVE_DEEPENING);
+    this.aspirationWindows = alphaBeta && iterativeDeepening
+            && options.contains(SearchOption.ASPIRATION_WINDOWS);
+    this.nullMovePruning = principalVariationSearch
+            && options.contains(SearchOption.NULL_MOVE_PRUNING);
+    this.lateMoveReductions = principalVariationSearch && moveOrdering
+            && options.contains(SearchOption.LATE_MOVE_REDUCTIONS);
+    this.historyHeuristic = moveOrdering && options.contains(SearchOption.HISTORY_HEURISTIC);
+    this.countermoves = moveOrdering && options.contains(SearchOption.COUNTERMOVES);
+    this.futilityPruning = principalVariationSearch
+            && options.contains(SearchOption.FUTILITY_PRUNING);
+    this.reverseFutilityPruning = principalVariationSearch
+            && options.contains(SearchOption.REVERSE_FUTILITY_PRUNING);
+    this.deltaPruning = quiescenceSearch && options.contains(SearchOption.DELTA_PRUNING);
+    this.transpositionTable = options.contains(SearchOption.TRANSPOSITION_TABLE)
+            ? transpositionTable
+            : null;
+    this.examinedBoards = 0;
+    this.timeBudget = 0;
+    this.threads = 1;
+
+    // Quiescence search goes deeper than the player depth
+    this.maxPly = 2 * Math.max(depth, MAX_DEPTH);
+    this.history = new HistoryTable();
+    this.moveLists = new MoveList[maxPly + 1];
+    this.movePickers = new MovePicker[maxPly + 1];
+    for (int i = 0; i <= maxPly; i++) {
+      if (moveOrdering) {
+        this.movePickers[i] = new MovePicker(historyHeuristic ? this.history : null);
+      } else {
+        this.moveLists[i] = new MoveList();
+      }
+    }
+    this.quiescenceMoveLists = new MoveList[quiescenceSearch ? maxPly + 1 : 0];
+    for (int i = 0; i < this.quiescenceMoveLists.length; i++) {
+      this.quiescenceMoveLists[i] = new MoveList();
+    }
+    this.killerMoves = new int[maxPly + 1][KILLER_MOVES_SLOTS];
+    this.lateMoveReductionTable = new int[LATE_MOVE_TABLE_SIZE][LATE_MOVE_TABLE_SIZE];
+    setLateMoveReductions(LATE_MOVE_BASE, LATE_MOVE_DIVISOR);
+    this.principalVariation = new int[maxPly];
+    this.principalVariationKeys = new long[maxPly];
+  }
+
+  // A helper for the parallel search: same options and transposition table, its
+  // own move pickers, killer moves and history
+  private NegamaxPlayer(NegamaxPlayer mainPlayer) {
+    this(mainPlayer.algorithmName, mainPlayer.depth, mainPlayer.evaluator,
+            mainPlayer.transpositionTable, mainPlayer.options);
+    this.helper = true;
+    setLateMoveReductionTable(mainPlayer.lateMoveReductionTable);
+  }
+
+  // 0 (the default) searches at the player depth, whatever time it takes. Only
+  // used with ITERATIVE_DEEPENING, that always has a completed iteration to
+  // fall back on.
+  public void setTimeBudget(long milliseconds) {
+    this.timeBudget = milliseconds;
+  }
+
+  // 0 (the default) for no limit. The search stops as soon as it is reached,
+  // even in the first iteration (the boards of the helper threads don't count).
+  public void setNodeLimit(long nodeLimit) {
+    this.nodeLimit = nodeLimit;
+  }
+
+  @Override
+  public void stop() {
+    this.stopRequested = true;
+  }
+
+  // 1 (the default) searches in the calling thread only. The helper threads are
+  // used only with a TRANSPOSITION_TABLE, the only thing they share.
+  public void setThreads(int threads) {
+    this.threads = Math.max(threads, 1);
+  }
+
+  // Fills the table of late move reductions: a lower divisor reduces more, and
+  // sooner (only used with LATE_MOVE_REDUCTIONS)
+  public void setLateMoveReductions(double base, double divisor) {
+    for (int d = 1; d < LATE_MOVE_TABLE_SIZE; d++) {
+      for (int m = 1; m < LATE_MOVE_TABLE_SIZE; m++) {
+        lateMoveReductionTable[d][m] = (int) (base + Math.log(d) * Math.log(m) / divisor);
+      }
+    }
+    // The helpers have a copy of the table: they are created again
+    this.helpers = null;
+  }
+
+  private void setLateMoveReductionTable(int[][] table) {
+    for (int d = 0; d < LATE_MOVE_TABLE_SIZE; d++) {
+      System.arraycopy(table[d], 0, lateMoveReductionTable[d], 0, LATE_MOVE_TABLE_SIZE);
+    }
+  }
+
+  @Override
+  public Transition play(Board startingBoard) {
+    long startTime = System.currentTimeMillis();
+    BitBoard board = new BitBoard(startingBoard.getBitBoard());
+    Color color = startingBoard.getCurrentPlayer().getPlayerColor();
+    boolean timed = iterativeDeepening && timeBudget > 0;
+    if (transpositionTable != null) {
+      this.transpositionTable.newSearch();
+    }
+    this.history.age();
+    this.stopped = false;
+    this.firstExaminedBoard = this.examinedBoards;
+    this.deadline = timed ? startTime + timeBudget : 0;
+    this.nodesUntilClockCheck = NODES_BETWEEN_CLOCK_CHECKS;
+    this.principalVariationLength = 0;
+    int firstDepth = iterativeDeepening ? 1 : this.depth;
+    int lastDepth = timed ? MAX_DEPTH : this.depth;
+
+    System.out.println((color == Color.WHITE ? "White" : "Black") + " player AI starting... "
+            + "(algorithm = " + algorithmName + ") "
+            + (timed ? "(time = " + timeBudget + "ms) " : "(depth = " + this.depth + ") ")
+            + "(evaluator = " + this.evaluator + ")"
+            + (threads > 1 ? " (threads = " + threads + ")" : "")
+    );
+
+    NegamaxPlayer[] helpers = getHelpers();
+    Thread[] helperThreads = startHelpers(helpers, board);
+
+    int bestMove = PackedMove.NONE;
+    int previousScore = 0;  // For the player to move, as negamax() returns it
+    int score = 0;
+    for (iterationDepth = firstDepth; iterationDepth <= lastDepth; iterationDepth++) {
+      this.rootBestMove = PackedMove.NONE;
+      int iterationScore = (aspirationWindows && iterationDepth >= ASPIRATION_MIN_DEPTH)
+              ? searchAspirationWindow(board, previousScore)
+              : negamax(board, iterationDepth, -INFINITY, INFINITY);
+      if (stopped) {
+        break;
+      }
+      previousScore = iterationScore;
+      bestMove = this.rootBestMove;
+      // Scores are printed from the White point of view, as the evaluators do
+      score = (color == Color.WHITE) ? iterationScore : -iterationScore;
+      savePrincipalVariation(board);
+
+      long elapsedTime = System.currentTimeMillis() - startTime;
+      if (iterativeDeepening) {
+        System.out.println("\tDepth " + iterationDepth + ": " + getPrincipalVariation()
+                + " (score: " + score + ") (" + elapsedTime + "ms)");
+      }
+
+      // The next iteration would take longer than all the previous ones
+      // together: if it can't end in time, don't start it
+      if (timed && elapsedTime > timeBudget / 2) {
+        break;
+      }
+    }
+
+    boolean interrupted = stopRequested || isOverNodeLimit();
+    this.stopRequested = false;
+    stopHelpers(helpers, helperThreads);
+    if (bestMove == PackedMove.NONE) {
+      // Stopped in the first iteration: the best root move searched so far, if
+      // any
+      bestMove = (this.rootBestMove != PackedMove.NONE) ? this.rootBestMove : getFirstLegalMove(board);
+    }
+
+    Move move = PackedMove.toMove(startingBoard, bestMove);
+
+    long endTime = System.currentTimeMillis();
+
+    System.out.println("\tExecution time: " + (endTime - startTime) + "ms\n"
+            + "\tExamined boards: " + examinedBoards + "\n"
+            + (lateMoveReductions
+                    ? "\tReduced moves: " + reducedMoves + " (searched again: " + researchedMoves + ")\n"
+                    : "")
+            + (futilityPruning || deltaPruning ? "\tPruned moves: " + prunedMoves + "\n" : "")
+            + (interrupted ? "\tSearch stopped before the end\n" : "")
+            + "\tBest move chosen: " + move + " (score: " + score + ")");
+
+    return new Transition(startingBoard, move.makeMove(), move);
+  }
+
+  private static int getFirstLegalMove(BitBoard board) {
+    MoveList moves = new MoveList();
+    MoveGenerator.generateLegalMoves(board, moves);
+    return moves.isEmpty() ? PackedMove.NONE : moves.get(0);
+  }
+
+  private NegamaxPlayer[] getHelpers() {
+    int count = (threads <= 1 || transpositionTable == null) ? 0 : threads - 1;
+    if (this.helpers == null || this.helpers.length != count) {
+      this.helpers = new NegamaxPlayer[count];
+      for (int i = 0; i < count; i++) {
+        this.helpers[i] = new NegamaxPlayer(this);
+      }
+    }
+    return this.helpers;
+  }
+
+  // Each helper gets its own copy of the board, made here before the thread
+  // starts: the threads never touch the same board (and never a Board or a Piece,
+  // only BitBoards)
+  private Thread[] startHelpers(NegamaxPlayer[] helpers, BitBoard board) {
+    Thread[] helperThreads = new Thread[helpers.length];
+    for (int i = 0; i < helpers.length; i++) {
+      NegamaxPlayer helper = helpers[i];
+      BitBoard helperBoard = new BitBoard(board);
+      // Half of the helpers are one ply ahead of the others
+      int helperFirstDepth = 1 + (i % 2);
+      helper.stopRequested = false;
+      helperThreads[i] = new Thread(() -> helper.searchAsHelper(helperBoard, helperFirstDepth),
+              algorithmName + " helper " + (i + 1));
+      helperThreads[i].setDaemon(true);
+      helperThreads[i].start();
+    }
+    return helperThreads;
+  }
+
+  // Stops the helpers and waits for all of them, adding their examined boards to
+  // ours. An interruption doesn't cut the wait short (a helper still running
+  // would write into the table of the next search): it is only restored at the end.
+  private void stopHelpers(NegamaxPlayer[] helpers, Thread[] helperThreads) {
+    for (NegamaxPlayer helper : helpers) {
+      helper.stopRequested = true;
+    }
+    boolean interrupted = false;
+    for (int i = 0; i < helperThreads.length; i++) {
+      while (true) {
+        try {
+          helperThreads[i].join();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      this.examinedBoards += helpers[i].examinedBoards;
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // The body of a helper thread: deeper and deeper iterations, until the main
+  // search stops it. The results only go to the transposition table.
+  private void searchAsHelper(BitBoard board, int firstDepth) {
+    this.examinedBoards = 0;
+    this.history.age();
+    this.stopped = false;
+    this.deadline = 0;
+    this.nodesUntilClockCheck = NODES_BETWEEN_CLOCK_CHECKS;
+    this.principalVariationLength = 0;
+    int previousScore = 0;
+    for (iterationDepth = firstDepth; iterationDepth <= MAX_DEPTH; iterationDepth++) {
+      this.rootBestMove = PackedMove.NONE;
+      int iterationScore = (aspirationWindows && iterationDepth >= ASPIRATION_MIN_DEPTH)
+              ? searchAspirationWindow(board, previousScore)
+              : negamax(board, iterationDepth, -INFINITY, INFINITY);
+      if (stopped) {
+        return;
+      }
+      previousScore = iterationScore;
+    }
+  }
+
+  // Searches the root with a narrow window around the score of the previous
+  // iteration, which is usually close to the new one: most nodes are cut off
+  // sooner. When the score falls outside the window the search is repeated with
+  // a wider one on that side.
+  // See: https://www.chessprogramming.org/Aspiration_Windows
+  private int searchAspirationWindow(BitBoard board, int previousScore) {
+    int delta = ASPIRATION_WINDOW;
+    int alpha = Math.max(previousScore - delta, -INFINITY);
+    int beta = Math.min(previousScore + delta, INFINITY);
+    while (true) {
+      int score = negamax(board, iterationDepth, alpha, beta);
+      if (stopped) {
+        return 0;
+      }
+      if (score <= alpha && alpha > -INFINITY) {
+        if (!helper) {
+          System.out.println("\tDepth " + iterationDepth + ": failed low, searching again");
+        }
+        delta *= 2;
+        alpha = Math.max(previousScore - delta, -INFINITY);
+      } else if (score >= beta && beta < INFINITY) {
+        if (!helper) {
+          System.out.println("\tDepth " + iterationDepth + ": failed high, searching again");
+        }
+        delta *= 2;
+        beta = Math.min(previousScore + delta, INFINITY);
+      } else {
+        return score;
+      }
+    }
+  }
+
+  // Score of the board for the player to move, searched depth plies deep.
+  // Fail-soft: the result can be outside the (alpha, beta) window, and then it is
+  // only a bound of the real score.
+  protected int negamax(BitBoard board, int depth, int alpha, int beta) {
+    if (isTimeUp()) {
+      return 0;
+    }
+
+    if (depth <= 0) {
+      return quiescenceSearch ? quiescence(board, alpha, beta) : evaluate(board);
+    }
+
+    int currentPly = board.getPly();
+
+    // A deep enough result of the same position can stop the search (but not
+    // at the root, that has to find its best move); otherwise its best move
+    // is searched first
+    long entry = TranspositionTable.NO_ENTRY;
+    if (transpositionTable != null) {
+      entry = this.transpositionTable.probe(board.getZobristKey());
+      if (currentPly > 0 && TranspositionTable.isCutoff(entry, depth, alpha, beta)) {
+        return TranspositionTable.getScore(entry);
+      }
+    }
+    int originalAlpha = alpha;
+
+    boolean inCheck = board.isKingInCheck(board.getCurrentPlayerColor());
+
+    // Near the leaves of the zero window nodes, the static evaluation tells
+    // which positions are hopeless (or won) whatever the next moves
+    int staticScore = -INFINITY;
+    if ((futilityPruning || reverseFutilityPruning)
+            && beta - alpha == 1 && !inCheck && currentPly > 0
+            && depth < FUTILITY_MARGINS.length) {
+      staticScore = evaluate(board);
+      // Reverse futility ("static null move") pruning: even after giving away
+      // the margin, the player would still be above beta
+      // See: https://www.chessprogramming.org/Reverse_Futility_Pruning
+      if (reverseFutilityPruning && staticScore - FUTILITY_MARGINS[depth] >= beta) {
+        return staticScore - FUTILITY_MARGINS[depth];
+      }
+    }
+    // Futility pruning: a quiet move can't raise the static evaluation by more
+    // than the margin, so if that is still below alpha it is not searched
+    // See: https://www.chessprogramming.org/Futility_Pruning
+    boolean futile = futilityPruning && staticScore != -INFINITY
+            && depth <= FUTILITY_MAX_DEPTH
+            && staticScore + FUTILITY_MARGINS[depth] <= alpha;
+
+    if (nullMovePruning && canTryNullMove(board, depth, alpha, beta, inCheck)) {
+      // If the position is still too good for the opponent to allow even when
+      // the player passes, a real move can only make it better: the search can
+      // stop without trying them. The null move is searched less deep, so that
+      // the proof costs much less than the moves it saves.
+      // See: https://www.chessprogramming.org/Null_Move_Pruning
+      int reduction = (depth > NULL_MOVE_DEEP_DEPTH) ? NULL_MOVE_REDUCTION + 1 : NULL_MOVE_REDUCTION;
+      board.makeNullMove();
+      int score = -negamax(board, Math.max(depth - 1 - reduction, 0), -beta, -beta + 1);
+      board.unmakeNullMove();
+      if (isStopped()) {
+        return 0;
+      }
+      if (score >= beta) {
+        return beta;
+      }
+    }
+
+    initMoves(board, currentPly, getHashMove(board, entry));
+    int move = nextMove(currentPly, 0);
+
+    // Checkmate or stalemate: the match is over
+    if (move == PackedMove.NONE) {
+      return evaluate(board);
+    }
+
+    int nodeBestMove = PackedMove.NONE;
+    int highestScore = -INFINITY;
+
+    for (int moveNumber = 0; move != PackedMove.NONE; move = nextMove(currentPly, ++moveNumber)) {
+      if (currentPly == 0 && isLoggingRootMoves()) {
+        System.out.println("\tAnalyzing: " + PackedMove.toString(move));
+      }
+
+      board.makeMove(move);
+      if (futile && moveNumber > 0 && !PackedMove.isCapture(move) && !PackedMove.isPromotion(move)
+              && !board.isKingInCheck(board.getCurrentPlayerColor())) {
+        board.unmakeMove();
+        this.prunedMoves++;
+        highestScore = Math.max(highestScore, staticScore + FUTILITY_MARGINS[depth]);
+        continue;
+      }
+      int childDepth = depth - 1;
+      int score;
+      if (moveNumber == 0 || !principalVariationSearch) {
+        score = -negamax(board, childDepth, -beta, -alpha);
+      } else {
+        // With good ordering the first move is the best one: only prove that this
+        // one is not better (with a reduced depth if it is a late move), and
+        // search it again if it is
+        int reduction = getLateMoveReduction(board, currentPly, depth, moveNumber, inCheck);
+        score = -negamax(board, childDepth - reduction, -alpha - 1, -alpha);
+        if (reduction > 0) {
+          this.reducedMoves++;
+          if (score > alpha) {
+            this.researchedMoves++;
+            score = -negamax(board, childDepth, -alpha - 1, -alpha);
+          }
+        }
+        if (score > alpha && score < beta) {
+          score = -negamax(board, childDepth, -beta, -alpha);
+        }
+      }
+      board.unmakeMove();
+      if (isStopped()) {
+        return 0;
+      }
+
+      if (score > highestScore) {
+        highestScore = score;
+        nodeBestMove = move;
+        if (currentPly == 0) {
+          this.rootBestMove = move;
+        }
+      }
+
+      if (alphaBeta) {
+        alpha = Math.max(alpha, highestScore);
+        if (alpha >= beta) {
+          if (!PackedMove.isCapture(move)) {
+            saveQuietCutoff(board, currentPly, depth, move);
+          }
+          break;
+        }
+      }
+    }
+
+    if (transpositionTable != null) {
+      this.transpositionTable.store(board.getZobristKey(), depth,
+              TranspositionTable.boundOf(highestScore, originalAlpha, beta), highestScore, nodeBestMove);
+    }
+    return highestScore;
+  }
+
+  // Searches only the captures and promotions, until the position is quiet: the
+  // score of a position where a piece is about to be captured would be wrong.
+  // The player to move can also "stand pat", keeping the static evaluation
+  // instead of capturing: it is the lower bound of the score (but not in check,
+  // where every move is searched).
+  // See: https://www.chessprogramming.org/Quiescence_Search
+  private int quiescence(BitBoard board, int alpha, int beta) {
+    if (isTimeUp()) {
+      return 0;
+    }
+
+    int ply = board.getPly();
+    // No move lists left for a deeper ply (checks and evasions can go on for long)
+    if (ply >= maxPly) {
+      return evaluate(board);
+    }
+    boolean inCheck = board.isKingInCheck(board.getCurrentPlayerColor());
+    int highestScore = -INFINITY;
+    if (!inCheck) {
+      highestScore = evaluate(board);
+      if (highestScore >= beta) {
+        return highestScore;
+      }
+      alpha = Math.max(alpha, highestScore);
+    }
+
+    // Most valuable victims first
+    MoveList moves = this.quiescenceMoveLists[ply];
+    MoveGenerator.generateLegalMoves(board, moves,
+            inCheck ? MoveGenerator.ALL_MOVES : MoveGenerator.CAPTURES_AND_PROMOTIONS);
+    if (moves.isEmpty() && inCheck) {
+      // Checkmate: the match is over
+      return evaluate(board);
+    }
+    for (int i = 0; i < moves.size(); i++) {
+      moves.setScore(i, MovePicker.mvvlva(moves.get(i)));
+    }
+    moves.sortByScore();
+
+    for (int i = 0; i < moves.size(); i++) {
+      int move = moves.get(i);
+      // Underpromotions hardly ever matter, and a capture that loses material
+      // once the exchange is over can't raise the stand pat score
+      if (!inCheck && ((PackedMove.isPromotion(move)
+              && PackedMove.getPromotionType(move) != ChessPieceType.QUEEN)
+              || board.staticExchangeEvaluation(move) < 0)) {
+        continue;
+      }
+
+      // Delta pruning: even winning the captured piece (and the promotion) with
+      // a safety margin, the player would stay below alpha
+      // See: https://www.chessprogramming.org/Delta_Pruning
+      if (deltaPruning && !inCheck
+              && highestScore + getMaterialGain(move) + DELTA_MARGIN <= alpha) {
+        this.prunedMoves++;
+        continue;
+      }
+
+      board.makeMove(move);
+      int score = -quiescence(board, -beta, -alpha);
+      board.unmakeMove();
+      if (isStopped()) {
+        return 0;
+      }
+
+      if (score > highestScore) {
+        highestScore = score;
+        alpha = Math.max(alpha, score);
+        if (alpha >= beta) {
+          break;
+        }
+      }
+    }
+    return highestScore;
+  }
+
+  // Material won by a capture or promotion, before any recapture
+  private static int getMaterialGain(int move) {
+    ChessPieceType captured = PackedMove.getCapturedType(move);
+    int gain = (captured == null) ? 0 : captured.getValue();
+    if (PackedMove.isPromotion(move)) {
+      gain += PackedMove.getPromotionType(move).getValue() - ChessPieceType.PAWN.getValue();
+    }
+    return gain;
+  }
+
+  // The null move is tried only in the zero window nodes of the principal
+  // variation search, deep enough to save something, and never:
+  // - when the player is in check (passing would be illegal);
+  // - when the player has only the King and pawns, where zugzwang (every move
+  //   makes the position worse) is common and passing would be the best "move";
+  // - right after another null move (two of them would search the same position
+  //   again, less deep).
+  private boolean canTryNullMove(BitBoard board, int depth, int alpha, int beta, boolean inCheck) {
+    return beta - alpha == 1
+            && depth >= NULL_MOVE_MIN_DEPTH
+            && board.getPly() > 0
+            && board.getLastMove() != PackedMove.NONE
+            && board.hasNonPawnMaterial(board.getCurrentPlayerColor())
+            && !inCheck;
+  }
+
+  // Plies taken off the search of a move (just played on the board), 0 if it has
+  // to be searched at full depth. Only the quiet moves after the killers are
+  // reduced, and never when they give check or get out of it: the moves that
+  // change the position the most are searched at full depth.
+  // See: https://www.chessprogramming.org/Late_Move_Reductions
+  private int getLateMoveReduction(BitBoard board, int ply, int depth, int moveNumber,
+                                   boolean inCheck) {
+    if (!lateMoveReductions
+            || depth < LATE_MOVE_MIN_DEPTH
+            || moveNumber < LATE_MOVE_MIN_MOVE_NUMBER
+            || inCheck
+            || !this.movePickers[ply].isLateQuietMove()
+            || PackedMove.isPromotion(board.getLastMove())
+            || board.isKingInCheck(board.getCurrentPlayerColor())) {
+      return 0;
+    }
+    int reduction = lateMoveReductionTable[Math.min(depth, LATE_MOVE_TABLE_SIZE - 1)]
+            [Math.min(moveNumber, LATE_MOVE_TABLE_SIZE - 1)];
+    // Leave at least one ply
+    return Math.max(Math.min(reduction, depth - 2), 0);
+  }
+
+  // The evaluators score the boards from the White point of view
+  private int evaluate(BitBoard board) {
+    this.examinedBoards++;
+    int score = evaluator.evaluate(board);
+    return board.getCurrentPlayerColor() == Color.WHITE ? score : -score;
+  }
+
+  private void initMoves(BitBoard board, int ply, int hashMove) {
+    if (moveOrdering) {
+      this.movePickers[ply].init(board, hashMove,
+              useKillerMoves ? killerMoves[ply][0] : PackedMove.NONE,
+              useKillerMoves ? killerMoves[ply][1] : PackedMove.NONE,
+              countermoves
+                      ? history.getCountermove(board.getCurrentPlayerColor(), board.getLastMove())
+                      : PackedMove.NONE);
+    } else {
+      MoveList moves = this.moveLists[ply];
+      MoveGenerator.generateLegalMoves(board, moves);
+      if (randomMoveOrder) {
+        shuffleMoves(moves);
+      }
+    }
+  }
+
+  // The next move of the ply, or PackedMove.NONE once they are over
+  private int nextMove(int ply, int moveNumber) {
+    if (moveOrdering) {
+      return this.movePickers[ply].next();
+    }
+    MoveList moves = this.moveLists[ply];
+    return moveNumber < moves.size() ? moves.get(moveNumber) : PackedMove.NONE;
+  }
+
+  // Fisher-Yates shuffle
+  private void shuffleMoves(MoveList moves) {
+    for (int i = moves.size() - 1; i > 0; i--) {
+      moves.swap(i, this.random.nextInt(i + 1));
+    }
+  }
+
+  // A quiet move caused a cutoff: it becomes a killer move of the ply, the
+  // countermove of the previous move, and its history score grows
+  private void saveQuietCutoff(BitBoard board, int ply, int depth, int move) {
+    if (useKillerMoves) {
+      saveKillerMove(ply, move);
+    }
+    Color color = board.getCurrentPlayerColor();
+    if (historyHeuristic) {
+      this.history.addCutoff(color, move, depth);
+    }
+    if (countermoves) {
+      this.history.setCountermove(color, board.getLastMove(), move);
+    }
+  }
+
+  private void saveKillerMove(int ply, int candidateKiller) {
+    int firstKiller = killerMoves[ply][0];
+
+    // If candidateKiller is not already present, save it
+    if (candidateKiller != firstKiller) {
+      for (int i = KILLER_MOVES_SLOTS - 2; i >= 0; i--) {
+        killerMoves[ply][i + 1] = killerMoves[ply][i];
+      }
+      killerMoves[ply][0] = candidateKiller;
+    }
+  }
+
+  // True once the time is over (the first iteration always ends, so that there
+  // is a move to play), the search was asked to stop or it reached the node limit
+  protected boolean isTimeUp() {
+    if (!stopped && --nodesUntilClockCheck <= 0) {
+      nodesUntilClockCheck = NODES_BETWEEN_CLOCK_CHECKS;
+      stopped = stopRequested
+              || isOverNodeLimit()
+              || (deadline != 0 && iterationDepth > 1 && System.currentTimeMillis() >= deadline);
+    }
+    return stopped;
+  }
+
+  private boolean isOverNodeLimit() {
+    return nodeLimit != 0 && examinedBoards - firstExaminedBoard >= nodeLimit;
+  }
+
+  protected boolean isStopped() {
+    return stopped;
+  }
+
+  // The root moves are listed only by a fixed depth search, in its last iteration
+  protected boolean isLoggingRootMoves() {
+    return !helper && deadline == 0 && iterationDepth == this.depth;
+  }
+
+  // The move of the previous principal variation if the board is on it, otherwise
+  // the one of the transposition table entry (PackedMove.NONE if there is none)
+  protected int getHashMove(BitBoard board, long entry) {
+    int ply = board.getPly();
+    if (ply < principalVariationLength && principalVariationKeys[ply] == board.getZobristKey()) {
+      return principalVariation[ply];
+    }
+    return TranspositionTable.getMove(entry);
+  }
+
+  // The principal variation is the root best move followed by the best moves of
+  // the transposition table, as long as they can be played
+  private void savePrincipalVariation(BitBoard board) {
+    BitBoard pvBoard = new BitBoard(board);
+    int move = this.rootBestMove;
+    int length = 0;
+    while (move != PackedMove.NONE && length < iterationDepth) {
+      principalVariation[length] = move;
+      principalVariationKeys[length] = pvBoard.getZobristKey();
+      length++;
+      if (transpositionTable == null) {
+        break;
+      }
+      pvBoard.makeMove(move);
+      move = TranspositionTable.getMove(transpositionTable.probe(pvBoard.getZobristKey()));
+      if (!MoveGenerator.isPlayable(pvBoard, move)) {
+        break;
+      }
+    }
+    this.principalVariationLength = length;
+  }
+
+  private String getPrincipalVariation() {
+    StringBuilder result = new StringBuilder();
+    for (int i = 0; i < principalVariationLength; i++) {
+      if (i > 0) {
+        result.append(", ");
+      }
+      result.append(PackedMove.toString(principalVariation[i]));
+    }
+    return result.toString();
+  }
+}
@@ -0,0 +1,324 @@
+package it.unisa.rookie.ai;
+
+import it.unisa.rookie.board.BitBoard;
+import it.unisa.rookie.board.Board;
+import it.unisa.rookie.board.Move;
+import it.unisa.rookie.board.MoveGenerator;
+import it.unisa.rookie.board.MoveList;
+import it.unisa.rookie.board.MovePicker;
+import it.unisa.rookie.board.PackedMove;
+import it.unisa.rookie.board.Transition;
+import it.unisa.rookie.board.evaluation.Evaluator;
+import it.unisa.rookie.piece.Color;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+// Alpha-beta search split among threads with the "Young Brothers Wait" rule: at
+// each node the first move (the eldest brother) is searched alone, because with
+// good ordering it is often the best one and gives the bounds the others need.
+// Only when it doesn't cause a cutoff the other moves (its younger brothers) are
+// searched in parallel, as ForkJoinTasks: idle threads steal them, and the tasks
+// forked by a stolen one, from the other threads.
+// See: https://www.chessprogramming.org/Young_Brothers_Wait_Concept
+//
+// The brothers share the bounds of their node: every score that raises alpha
+// narrows the window of the brothers still to start, and a cutoff aborts the
+// ones that are running (and everything they forked).
+//
+// Unlike the Lazy SMP of the NegamaxPlayer, every thread works on the same tree,
+// searched to the same depth: the result is the one of a serial plain alpha-beta
+// search with the same move ordering (the MovePicker, without killer moves) and
+// transposition table, found sooner.
+//
+// Each task keeps its own move picker for each depth: the nodes it searches
+// itself, one inside the other, never have the same depth.
+//
+// The search can be stopped from another thread (stop()) or by a limit of
+// examined boards, like the NegamaxPlayer: then the best move of the last
+// completed iteration is played (or the best one found so far in the first).
+public class ParallelAlphaBetaPlayer implements ArtificialIntelligencePlayer {
+  // Larger than any evaluation, and still negated without overflowing
+  private static final int INFINITY = 1000000;
+
+  // Nodes closer to the leaves are searched by one thread: a task would cost more
+  // than their search
+  private static final int MIN_SPLIT_DEPTH = 3;
+
+  private final int depth;
+  private final Evaluator evaluator;
+  private final TranspositionTable transpositionTable;
+  private final LongAdder examinedBoards;
+  // Threads of the pool, the calling one not included (it only waits)
+  private int threads;
+
+  // Set by stop() and cleared at the end of the search
+  private volatile boolean stopRequested;
+  // Set when the search has to end: asked to stop, or over the node limit
+  private volatile boolean stopped;
+  // Boards to examine at most for each move (0 for no limit), and the count
+  // when the search started
+  private long nodeLimit;
+  private long firstExaminedBoard;
+
+  // The bounds and the result of a node, shared by its brothers
+  private static class Node {
+    private final Node parent;
+    private final int beta;
+    private volatile int alpha;
+    private volatile boolean cutoff;
+    // Written under the lock, read after the brothers are joined
+    private int highestScore;
+    private int bestMove;
+
+    Node(Node parent, int alpha, int beta) {
+      this.parent = parent;
+      this.alpha = alpha;
+      this.beta = beta;
+      this.highestScore = -INFINITY;
+      this.bestMove = PackedMove.NONE;
+    }
+
+    // True once this node, or one of its ancestors, had a cutoff: what is still
+    // searched below it doesn't matter anymore
+    boolean isAborted() {
+      for (Node node = this; node != null; node = node.parent) {
+        if (node.cutoff) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    // The score of a move, unless the search was aborted (then it is meaningless)
+    synchronized void update(int score, int move) {
+      if (isAborted()) {
+        return;
+      }
+      if (score > highestScore) {
+        highestScore = score;
+        bestMove = move;
+      }
+      if (score > alpha) {
+        alpha = score;
+        if (alpha >= beta) {
+          cutoff = true;
+        }
+      }
+    }
+  }
+
+  // A younger brother: one move of the node, on its own copy of the board
+  private class BrotherSearch extends RecursiveAction {
+    private static final long serialVersionUID = 1L;
+
+    private final BitBoard board;
+    private final int depth;
+    private final Node node;
+    private final int move;
+
+    BrotherSearch(BitBoard board, int depth, Node node, int move) {
+      this.board = board;
+      this.depth = depth;
+      this.node = node;
+      this.move = move;
+    }
+
+    @Override
+    protected void compute() {
+      if (!stopped && !node.isAborted()) {
+        // The nodes below the move are less than depth plies deep
+        searchMove(board, depth, node, move, new MovePicker[depth]);
+      }
+    }
+  }
+
+  public ParallelAlphaBetaPlayer(int depth, Evaluator evaluator) {
+    this(depth, evaluator, new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
+  }
+
+  // The table can be shared by the players of a match, to remember the
+  // positions searched for the previous moves
+  public ParallelAlphaBetaPlayer(int depth, Evaluator evaluator,
+                                 TranspositionTable transpositionTable) {
+    this.depth = depth;
+    this.evaluator = evaluator;
+    this.transpositionTable = transpositionTable;
+    this.examinedBoards = new LongAdder();
+    this.threads = Runtime.getRuntime().availableProcessors();
+  }
+
+  // 0 (the default) for no limit. The limit is checked away from the leaves,
+  // where nodes are few: the search can go a little beyond it.
+  public void setNodeLimit(long nodeLimit) {
+    this.nodeLimit = nodeLimit;
+  }
+
+  @Override
+  public void stop() {
+    this.stopRequested = true;
+    this.stopped = true;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = Math.max(threads, 1);
+  }
+
+  @Override
+  public Transition play(Board startingBoard) {
+    long startTime = System.currentTimeMillis();
+    BitBoard board = new BitBoard(startingBoard.getBitBoard());
+    Color color = startingBoard.getCurrentPlayer().getPlayerColor();
+    this.transpositionTable.newSearch();
+    this.stopped = stopRequested;
+    this.firstExaminedBoard = examinedBoards.sum();
+
+    System.out.println((color == Color.WHITE ? "White" : "Black") + " player AI starting... "
+            + "(algorithm = ParallelAlphaBeta) "
+            + "(depth = " + this.depth + ") "
+            + "(evaluator = " + this.evaluator + ") "
+            + "(threads = " + threads + ")"
+    );
+
+    // Iterative deepening: each iteration fills the transposition table with the
+    // best moves that the next one searches first
+    int bestMove = PackedMove.NONE;
+    int score = 0;
+    ForkJoinPool pool = new ForkJoinPool(threads);
+    MovePicker[] rootMovePickers = new MovePicker[this.depth + 1];
+    try {
+      for (int iterationDepth = 1; iterationDepth <= this.depth; iterationDepth++) {
+        Node root = new Node(null, -INFINITY, INFINITY);
+        int currentDepth = iterationDepth;
+        pool.invoke(ForkJoinTask.adapt(() -> searchMoves(board, currentDepth, root,
+                TranspositionTable.getMove(transpositionTable.probe(board.getZobristKey())),
+                rootMovePickers)));
+        if (stopped) {
+          if (bestMove == PackedMove.NONE) {
+            bestMove = root.bestMove;
+          }
+          break;
+        }
+        this.transpositionTable.store(board.getZobristKey(), iterationDepth,
+                TranspositionTable.EXACT, root.highestScore, root.bestMove);
+        bestMove = root.bestMove;
+        // Scores are printed from the White point of view, as the evaluators do
+        score = (color == Color.WHITE) ? root.highestScore : -root.highestScore;
+        System.out.println("\tDepth " + iterationDepth + ": " + PackedMove.toString(bestMove)
+                + " (score: " + score + ") (" + (System.currentTimeMillis() - startTime) + "ms)");
+      }
+    } finally {
+      pool.shutdown();
+    }
+
+    boolean interrupted = stopped;
+    this.stopRequested = false;
+    if (bestMove == PackedMove.NONE) {
+      // Stopped before any root move was searched
+      MoveList moves = new MoveList();
+      MoveGenerator.generateLegalMoves(board, moves);
+      bestMove = moves.isEmpty() ? PackedMove.NONE : moves.get(0);
+    }
+
+    Move move = PackedMove.toMove(startingBoard, bestMove);
+
+    long endTime = System.currentTimeMillis();
+
+    System.out.println("\tExecution time: " + (endTime - startTime) + "ms\n"
+            + "\tExamined boards: " + examinedBoards.sum() + "\n"
+            + (interrupted ? "\tSearch stopped before the end\n" : "")
+            + "\tBest move chosen: " + move + " (score: " + score + ")");
+
+    return new Transition(startingBoard, move.makeMove(), move);
+  }
+
+  // Score of the board for the player to move, searched depth plies deep with
+  // the window (alpha, beta), as a child of parent. Fail-soft, like the
+  // NegamaxPlayer. The result is meaningless (0) if parent is aborted meanwhile.
+  private int search(BitBoard board, int depth, int alpha, int beta, Node parent,
+                     MovePicker[] movePickers) {
+    if (stopped || parent.isAborted()) {
+      return 0;
+    }
+
+    if (depth <= 0) {
+      return evaluate(board);
+    }
+
+    long entry = this.transpositionTable.probe(board.getZobristKey());
+    if (TranspositionTable.isCutoff(entry, depth, alpha, beta)) {
+      return TranspositionTable.getScore(entry);
+    }
+
+    if (depth >= MIN_SPLIT_DEPTH && nodeLimit != 0
+            && examinedBoards.sum() - firstExaminedBoard >= nodeLimit) {
+      this.stopped = true;
+      return 0;
+    }
+
+    Node node = new Node(parent, alpha, beta);
+    searchMoves(board, depth, node, TranspositionTable.getMove(entry), movePickers);
+    if (stopped || parent.isAborted()) {
+      return 0;
+    }
+    this.transpositionTable.store(board.getZobristKey(), depth,
+            TranspositionTable.boundOf(node.highestScore, alpha, beta), node.highestScore, node.bestMove);
+    return node.highestScore;
+  }
+
+  // Searches the moves of the board, filling node: the eldest brother first,
+  // then the others in parallel (or one after the other, near the leaves)
+  private void searchMoves(BitBoard board, int depth, Node node, int hashMove,
+                           MovePicker[] movePickers) {
+    if (movePickers[depth] == null) {
+      movePickers[depth] = new MovePicker();
+    }
+    MovePicker movePicker = movePickers[depth];
+    movePicker.init(board, hashMove, PackedMove.NONE, PackedMove.NONE);
+    int move = movePicker.next();
+
+    // Checkmate or stalemate: the match is over
+    if (move == PackedMove.NONE) {
+      node.update(evaluate(board), PackedMove.NONE);
+      return;
+    }
+
+    searchMove(board, depth, node, move, movePickers);
+
+    if (depth < MIN_SPLIT_DEPTH) {
+      for (move = movePicker.next(); move != PackedMove.NONE && !stopped && !node.isAborted();
+           move = movePicker.next()) {
+        searchMove(board, depth, node, move, movePickers);
+      }
+      return;
+    }
+
+    // The board copies are made here, before any brother starts changing its own
+    List<BrotherSearch> brothers = new ArrayList<>();
+    for (move = movePicker.next(); move != PackedMove.NONE && !stopped && !node.isAborted();
+         move = movePicker.next()) {
+      brothers.add(new BrotherSearch(new BitBoard(board), depth, node, move));
+    }
+    ForkJoinTask.invokeAll(brothers);
+  }
+
+  private void searchMove(BitBoard board, int depth, Node node, int move, MovePicker[] movePickers) {
+    board.makeMove(move);
+    int score = -search(board, depth - 1, -node.beta, -node.alpha, node, movePickers);
+    board.unmakeMove();
+    // The score of a stopped search is meaningless
+    if (!stopped) {
+      node.update(score, move);
+    }
+  }
+
+  // The evaluators score the boards from the White point of view
+  private int evaluate(BitBoard board) {
+    this.examinedBoards.increment();
+    int score = evaluator.evaluate(board);
+    return board.getCurrentPlayerColor() == Color.WHITE ? score : -score;
+  }
+}
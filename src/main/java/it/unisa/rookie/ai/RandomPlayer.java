@@ -12,13 +12,8 @@ public class RandomPlayer implements ArtificialIntelligencePlayer {
   }
 
   public Transition play(Board startingBoard) {
-    ArrayList<Move> actualMoves = new ArrayList<>();
-
-    for (Move m : startingBoard.getCurrentPlayer().getLegalMoves()) {
-      if (!m.makeMove().getOpponentPlayer().isKingInCheck()) {
-        actualMoves.add(m);
-      }
-    }
+    // Only legal moves are generated for the player who has to move
+    ArrayList<Move> actualMoves = startingBoard.getCurrentPlayer().getLegalMoves();
 
     // Choose a random move
     if (!actualMoves.isEmpty()) {
@@ -0,0 +1,53 @@
+package it.unisa.rookie.ai;
+
+// The techniques a NegamaxPlayer can use: each AI player is the same search with
+// a different set of options.
+public enum SearchOption {
+  // Skip the moves that can't change the result (without it: plain minimax)
+  ALPHA_BETA,
+  // Search the moves after the first one with a zero window, and again with the
+  // full window only if they turn out to be better (needs ALPHA_BETA)
+  // See: https://www.chessprogramming.org/Principal_Variation_Search
+  PRINCIPAL_VARIATION_SEARCH,
+  // Shuffle the moves of each node
+  RANDOM_MOVE_ORDER,
+  // Hash move first, then the captures (MVV-LVA), then the quiet moves
+  MOVE_ORDERING,
+  // Quiet moves that caused a cutoff at the same ply, right after the captures
+  // (needs MOVE_ORDERING)
+  KILLER_MOVES,
+  // Go on with the captures and promotions at the leaves, until the position is
+  // quiet
+  QUIESCENCE_SEARCH,
+  // Remember the results of the searched positions
+  TRANSPOSITION_TABLE,
+  // Search 1, 2, ... plies deep, instead of going straight to the player depth
+  ITERATIVE_DEEPENING,
+  // Search each iteration with a narrow window around the score of the previous
+  // one, widened when the score falls outside (needs ALPHA_BETA and
+  // ITERATIVE_DEEPENING)
+  ASPIRATION_WINDOWS,
+  // Let the player pass: if the position is still good enough, stop the search
+  // of the node (needs PRINCIPAL_VARIATION_SEARCH, used in its zero window nodes)
+  NULL_MOVE_PRUNING,
+  // Search the quiet moves ordered after the killers less deep, and again at full
+  // depth only if they raise alpha (needs PRINCIPAL_VARIATION_SEARCH and
+  // MOVE_ORDERING)
+  LATE_MOVE_REDUCTIONS,
+  // Order the quiet moves by how many cutoffs they caused in the whole tree
+  // (needs MOVE_ORDERING)
+  HISTORY_HEURISTIC,
+  // Search right after the killers the quiet move that refuted the previous move
+  // of the opponent last time (needs MOVE_ORDERING)
+  COUNTERMOVES,
+  // One or two plies from the leaves, skip the quiet moves that can't bring the
+  // static evaluation up to alpha (needs PRINCIPAL_VARIATION_SEARCH, used in its
+  // zero window nodes)
+  FUTILITY_PRUNING,
+  // Up to three plies from the leaves, stop when the static evaluation is above
+  // beta by a safe margin (needs PRINCIPAL_VARIATION_SEARCH)
+  REVERSE_FUTILITY_PRUNING,
+  // In quiescence, skip the captures that can't bring the score up to alpha
+  // even winning the piece (needs QUIESCENCE_SEARCH)
+  DELTA_PRUNING
+}
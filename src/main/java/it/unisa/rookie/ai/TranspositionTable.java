@@ -0,0 +1,159 @@
+package it.unisa.rookie.ai;
+
+import it.unisa.rookie.board.PackedMove;
+import java.util.Arrays;
+
+// Results of already searched positions, indexed by their Zobrist key, so that
+// positions reached again through a different order of moves (transpositions)
+// are not searched from scratch.
+// See: https://www.chessprogramming.org/Transposition_Table
+//
+// The table is made of two long[] arrays of the same size (a power of two): the
+// full key of each entry XOR its data, to recognize it, and the data packed in a
+// long:
+//   bits  0-23  best move (a PackedMove)
+//   bits 24-31  depth of the search that produced the entry
+//   bits 32-33  bound type (EXACT, LOWER_BOUND, UPPER_BOUND; 0 for an empty entry)
+//   bits 34-39  age (the search that stored the entry)
+//   bits 40-63  score (signed)
+// so a lookup doesn't allocate anything.
+//
+// An entry of the current search is replaced only by a deeper (or as deep) one,
+// of any position, or by an exact score of the same position where it held only
+// a bound; an entry of an older search is always replaced. A result without a
+// best move keeps the move already stored for the position.
+//
+// The table is shared by the threads of a parallel search without locks: an
+// entry half written by another thread (the key of one store, the data of
+// another) no longer matches its key once XORed, and it is simply treated as
+// missing. The worst a race can do is lose an entry.
+// See: https://www.chessprogramming.org/Shared_Hash_Table#Lockless
+public class TranspositionTable {
+  public static final int DEFAULT_SIZE_MB = 16;
+
+  // The score is the exact value of the position...
+  public static final int EXACT = 1;
+  // ... or at least the stored score (the search failed high)...
+  public static final int LOWER_BOUND = 2;
+  // ... or at most the stored score (the search failed low)
+  public static final int UPPER_BOUND = 3;
+
+  // Returned by probe() when the position is not in the table
+  public static final long NO_ENTRY = 0L;
+
+  private static final int ENTRY_SIZE = 16;  // A key and a data long
+
+  private static final int DEPTH_SHIFT = 24;
+  private static final int BOUND_SHIFT = 32;
+  private static final int AGE_SHIFT = 34;
+  private static final int SCORE_SHIFT = 40;
+  private static final long MOVE_MASK = 0xFFFFFFL;
+  private static final long DEPTH_MASK = 0xFFL;
+  private static final long BOUND_MASK = 0x3L;
+  private static final long AGE_MASK = 0x3FL;
+
+  private final long[] keys;
+  private final long[] data;
+  private final int mask;
+  // Changed only by newSearch() and clear(), before the search threads start
+  private int age;
+
+  public TranspositionTable(int megabytes) {
+    // Largest power of two number of entries that fits in the given size
+    long entries = Long.highestOneBit(Math.max(1L, megabytes * 1024L * 1024L / ENTRY_SIZE));
+    entries = Math.min(entries, 1L << 30);
+    this.keys = new long[(int) entries];
+    this.data = new long[(int) entries];
+    this.mask = (int) entries - 1;
+    this.age = 0;
+  }
+
+  // Called at the start of every search: entries of previous searches are kept,
+  // but they are the first to be replaced
+  public void newSearch() {
+    this.age = (int) ((this.age + 1) & AGE_MASK);
+  }
+
+  public void clear() {
+    Arrays.fill(this.keys, 0L);
+    Arrays.fill(this.data, 0L);
+    this.age = 0;
+  }
+
+  // The packed entry of the position, or NO_ENTRY
+  public long probe(long zobristKey) {
+    int index = (int) zobristKey & mask;
+    long entry = data[index];
+    if ((keys[index] ^ entry) == zobristKey) {
+      return entry;
+    }
+    return NO_ENTRY;
+  }
+
+  public void store(long zobristKey, int depth, int bound, int score, int move) {
+    int index = (int) zobristKey & mask;
+    long entry = data[index];
+    boolean samePosition = (keys[index] ^ entry) == zobristKey;
+    if (entry != NO_ENTRY
+            && getAge(entry) == this.age
+            && getDepth(entry) > depth
+            && !(samePosition && bound == EXACT && getBound(entry) != EXACT)) {
+      // Keep the deeper result of the current search
+      return;
+    }
+    if (samePosition && move == PackedMove.NONE) {
+      move = getMove(entry);
+    }
+    long newEntry = (move & MOVE_MASK)
+            | ((depth & DEPTH_MASK) << DEPTH_SHIFT)
+            | ((bound & BOUND_MASK) << BOUND_SHIFT)
+            | ((long) this.age << AGE_SHIFT)
+            | ((long) score << SCORE_SHIFT);
+    data[index] = newEntry;
+    keys[index] = zobristKey ^ newEntry;
+  }
+
+  // True if the entry, stored by a search at least depth deep, already gives the
+  // result of a search in the (alpha, beta) window
+  public static boolean isCutoff(long entry, int depth, int alpha, int beta) {
+    if (entry == NO_ENTRY || getDepth(entry) < depth) {
+      return false;
+    }
+    int score = getScore(entry);
+    int bound = getBound(entry);
+    return bound == EXACT
+            || (bound == LOWER_BOUND && score >= beta)
+            || (bound == UPPER_BOUND && score <= alpha);
+  }
+
+  // Bound type of a score found by a search started with the (alpha, beta) window
+  public static int boundOf(int score, int alpha, int beta) {
+    if (score <= alpha) {
+      return UPPER_BOUND;
+    } else if (score >= beta) {
+      return LOWER_BOUND;
+    }
+    return EXACT;
+  }
+
+  public static int getMove(long entry) {
+    return (int) (entry & MOVE_MASK);
+  }
+
+  public static int getDepth(long entry) {
+    return (int) ((entry >>> DEPTH_SHIFT) & DEPTH_MASK);
+  }
+
+  public static int getBound(long entry) {
+    return (int) ((entry >>> BOUND_SHIFT) & BOUND_MASK);
+  }
+
+  public static int getScore(long entry) {
+    // Arithmetic shift: keeps the sign
+    return (int) (entry >> SCORE_SHIFT);
+  }
+
+  private static int getAge(long entry) {
+    return (int) ((entry >>> AGE_SHIFT) & AGE_MASK);
+  }
+}
@@ -0,0 +1,598 @@
+package it.unisa.rookie.board;
+
+import it.unisa.rookie.piece.Bishop;
+import it.unisa.rookie.piece.ChessPieceType;
+import it.unisa.rookie.piece.Color;
+import it.unisa.rookie.piece.King;
+import it.unisa.rookie.piece.Knight;
+import it.unisa.rookie.piece.Pawn;
+import it.unisa.rookie.piece.Piece;
+import it.unisa.rookie.piece.Position;
+import it.unisa.rookie.piece.Queen;
+import it.unisa.rookie.piece.Rook;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+// Bitboard representation of a chess position.
+//
+// Squares use the same numbering as Position (bit 0 = A8, bit 63 = H1), so
+// a Position value can be used directly as a bit index and vice versa.
+public class BitBoard {
+  public static final long EMPTY = 0L;
+  public static final long FILE_A = 0x0101010101010101L;
+  public static final long FILE_B = FILE_A << 1;
+  public static final long FILE_G = FILE_A << 6;
+  public static final long FILE_H = FILE_A << 7;
+  public static final long RANK_8 = 0xFFL;
+  public static final long RANK_7 = RANK_8 << 8;
+  public static final long RANK_2 = RANK_8 << 48;
+  public static final long RANK_1 = RANK_8 << 56;
+
+  // Castling rights (Board keeps the same information in King/Rook isFirstMove())
+  public static final int WHITE_KING_SIDE = 1;
+  public static final int WHITE_QUEEN_SIDE = 2;
+  public static final int BLACK_KING_SIDE = 4;
+  public static final int BLACK_QUEEN_SIDE = 8;
+
+  public static final int NO_SQUARE = -1;
+
+  private static final ChessPieceType[] PIECE_TYPES = ChessPieceType.values();
+  private static final Color[] COLORS = Color.values();
+
+  // Castling rights that survive a move from/to each tile (King and Rook tiles clear them)
+  private static final int[] CASTLING_RIGHTS_MASK = new int[64];
+
+  static {
+    Arrays.fill(CASTLING_RIGHTS_MASK, WHITE_KING_SIDE | WHITE_QUEEN_SIDE | BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+    CASTLING_RIGHTS_MASK[Position.E1.getValue()] &= ~(WHITE_KING_SIDE | WHITE_QUEEN_SIDE);
+    CASTLING_RIGHTS_MASK[Position.H1.getValue()] &= ~WHITE_KING_SIDE;
+    CASTLING_RIGHTS_MASK[Position.A1.getValue()] &= ~WHITE_QUEEN_SIDE;
+    CASTLING_RIGHTS_MASK[Position.E8.getValue()] &= ~(BLACK_KING_SIDE | BLACK_QUEEN_SIDE);
+    CASTLING_RIGHTS_MASK[Position.H8.getValue()] &= ~BLACK_KING_SIDE;
+    CASTLING_RIGHTS_MASK[Position.A8.getValue()] &= ~BLACK_QUEEN_SIDE;
+  }
+
+  private static final int INITIAL_HISTORY_SIZE = 128;
+
+  // One bitboard for each (color, piece type) pair, see pieceIndex()
+  private final long[] pieces;
+  private final long[] colorOccupancy;
+  private long occupancy;
+
+  // pieceIndex() + 1 for each square, 0 if the square is empty
+  private final byte[] mailbox;
+
+  private final int[] materialCount;
+  private Color currentPlayerColor;
+  private int enPassantSquare;
+  private int castlingRights;
+  // Zobrist key, kept up to date by makeMove() / unmakeMove() (see Zobrist)
+  private long zobristKey;
+
+  // makeMove() / unmakeMove() stacks, allocated by the first makeMove().
+  // Each undo record packs what a move can't tell by itself:
+  //  bits 0-3  captured piece (pieceIndex() + 1, 0 if none)
+  //  bits 4-7  castling rights before the move
+  //  bits 8-14 en passant square before the move (+ 1)
+  private int[] moveHistory;
+  private int[] undoHistory;
+  private long[] keyHistory;
+  private int historyLength;
+
+  // staticExchangeEvaluation() scratch list, allocated by its first call (a
+  // board is used by one thread at a time)
+  private int[] exchangeGains;
+
+  public BitBoard(Color currentPlayerColor) {
+    this.pieces = new long[12];
+    this.colorOccupancy = new long[2];
+    this.occupancy = EMPTY;
+    this.mailbox = new byte[64];
+    this.materialCount = new int[2];
+    this.currentPlayerColor = currentPlayerColor;
+    this.enPassantSquare = NO_SQUARE;
+    this.castlingRights = 0;
+  }
+
+  public BitBoard(BitBoard other) {
+    this.pieces = other.pieces.clone();
+    this.colorOccupancy = other.colorOccupancy.clone();
+    this.occupancy = other.occupancy;
+    this.mailbox = other.mailbox.clone();
+    this.materialCount = other.materialCount.clone();
+    this.currentPlayerColor = other.currentPlayerColor;
+    this.enPassantSquare = other.enPassantSquare;
+    this.castlingRights = other.castlingRights;
+    this.zobristKey = other.zobristKey;
+  }
+
+  public static int pieceIndex(Color color, ChessPieceType type) {
+    return color.ordinal() * 6 + type.getId();
+  }
+
+  public static long bit(int square) {
+    return 1L << square;
+  }
+
+  public static int column(int square) {
+    return square & 7;
+  }
+
+  public static int row(int square) {
+    return square >>> 3;
+  }
+
+  public void putPiece(Piece p) {
+    putPiece(p.getPosition().getValue(), p.getColor(), p.getType());
+  }
+
+  public void putPiece(int square, Color color, ChessPieceType type) {
+    long mask = bit(square);
+    int index = pieceIndex(color, type);
+    this.pieces[index] |= mask;
+    this.colorOccupancy[color.ordinal()] |= mask;
+    this.occupancy |= mask;
+    this.mailbox[square] = (byte) (index + 1);
+    this.materialCount[color.ordinal()] += type.getValue();
+  }
+
+  public void removePiece(int square) {
+    int index = this.mailbox[square] - 1;
+    if (index < 0) {
+      return;
+    }
+    long mask = ~bit(square);
+    this.pieces[index] &= mask;
+    this.colorOccupancy[index / 6] &= mask;
+    this.occupancy &= mask;
+    this.mailbox[square] = 0;
+    this.materialCount[index / 6] -= PIECE_TYPES[index % 6].getValue();
+  }
+
+  public boolean isEmpty(int square) {
+    return this.mailbox[square] == 0;
+  }
+
+  // null if the square is empty
+  public ChessPieceType getPieceType(int square) {
+    int index = this.mailbox[square] - 1;
+    return index < 0 ? null : PIECE_TYPES[index % 6];
+  }
+
+  // null if the square is empty
+  public Color getPieceColor(int square) {
+    int index = this.mailbox[square] - 1;
+    return index < 0 ? null : COLORS[index / 6];
+  }
+
+  // Builds a Piece object for the given square (null if the square is empty).
+  // The object is NOT shared with any Board: isFirstMove() is rebuilt from the
+  // pawn starting rows and from the castling rights.
+  public Piece getPiece(int square) {
+    int index = this.mailbox[square] - 1;
+    if (index < 0) {
+      return null;
+    }
+    Color color = COLORS[index / 6];
+    Position position = Position.fromValue(square);
+
+    switch (PIECE_TYPES[index % 6]) {
+      case PAWN:
+        return new Pawn(color, position, row(square) == (color == Color.WHITE ? 6 : 1));
+      case KNIGHT:
+        return new Knight(color, position, false);
+      case BISHOP:
+        return new Bishop(color, position, false);
+      case ROOK:
+        return new Rook(color, position, hasCastlingRightFrom(square, color));
+      case QUEEN:
+        return new Queen(color, position, false);
+      default:
+        return new King(color, position, hasCastlingRightFrom(square, color));
+    }
+  }
+
+  private boolean hasCastlingRightFrom(int square, Color color) {
+    if (color == Color.WHITE) {
+      return (square == Position.E1.getValue() && (castlingRights & (WHITE_KING_SIDE | WHITE_QUEEN_SIDE)) != 0)
+              || (square == Position.H1.getValue() && (castlingRights & WHITE_KING_SIDE) != 0)
+              || (square == Position.A1.getValue() && (castlingRights & WHITE_QUEEN_SIDE) != 0);
+    } else {
+      return (square == Position.E8.getValue() && (castlingRights & (BLACK_KING_SIDE | BLACK_QUEEN_SIDE)) != 0)
+              || (square == Position.H8.getValue() && (castlingRights & BLACK_KING_SIDE) != 0)
+              || (square == Position.A8.getValue() && (castlingRights & BLACK_QUEEN_SIDE) != 0);
+    }
+  }
+
+  public ArrayList<Piece> getWhitePieces() {
+    return getPieces(Color.WHITE);
+  }
+
+  public ArrayList<Piece> getBlackPieces() {
+    return getPieces(Color.BLACK);
+  }
+
+  private ArrayList<Piece> getPieces(Color color) {
+    ArrayList<Piece> result = new ArrayList<>();
+    long remaining = this.colorOccupancy[color.ordinal()];
+    while (remaining != 0) {
+      result.add(getPiece(Long.numberOfTrailingZeros(remaining)));
+      remaining &= remaining - 1;
+    }
+    return result;
+  }
+
+  public long getPieces(Color color, ChessPieceType type) {
+    return this.pieces[pieceIndex(color, type)];
+  }
+
+  public long getOccupancy(Color color) {
+    return this.colorOccupancy[color.ordinal()];
+  }
+
+  public long getOccupancy() {
+    return this.occupancy;
+  }
+
+  public int getKingSquare(Color color) {
+    long king = this.pieces[pieceIndex(color, ChessPieceType.KING)];
+    return king == 0 ? NO_SQUARE : Long.numberOfTrailingZeros(king);
+  }
+
+  public int getMaterialCount(Color color) {
+    return this.materialCount[color.ordinal()];
+  }
+
+  // False if the player has only the King and pawns left
+  public boolean hasNonPawnMaterial(Color color) {
+    return (getPieces(color, ChessPieceType.KNIGHT)
+            | getPieces(color, ChessPieceType.BISHOP)
+            | getPieces(color, ChessPieceType.ROOK)
+            | getPieces(color, ChessPieceType.QUEEN)) != 0;
+  }
+
+  // Plays a (pseudo-legal) PackedMove for the current player, in place
+  public void makeMove(int move) {
+    growHistory();
+
+    int source = PackedMove.getSource(move);
+    int destination = PackedMove.getDestination(move);
+    int flag = PackedMove.getFlag(move);
+    Color color = currentPlayerColor;
+    ChessPieceType movedType = PIECE_TYPES[(this.mailbox[source] - 1) % 6];
+
+    int capturedSquare = destination;
+    if (flag == PackedMove.EN_PASSANT) {
+      capturedSquare += (color == Color.WHITE) ? 8 : -8;
+    }
+    int captured = this.mailbox[capturedSquare];
+
+    undoHistory[historyLength] = captured | (castlingRights << 4) | ((enPassantSquare + 1) << 8);
+    moveHistory[historyLength] = move;
+    keyHistory[historyLength] = zobristKey;
+    historyLength++;
+
+    ChessPieceType placedType = (flag == PackedMove.PROMOTION) ? PackedMove.getPromotionType(move) : movedType;
+    long key = zobristKey
+            ^ Zobrist.castling(castlingRights)
+            ^ Zobrist.enPassant(enPassantSquare)
+            ^ Zobrist.SIDE
+            ^ Zobrist.piece(color, movedType, source)
+            ^ Zobrist.piece(color, placedType, destination);
+
+    if (captured != 0) {
+      removePiece(capturedSquare);
+      key ^= Zobrist.piece(captured - 1, capturedSquare);
+    }
+    removePiece(source);
+    putPiece(destination, color, placedType);
+
+    if (flag == PackedMove.CASTLING) {
+      boolean kingSide = destination > source;
+      int rookSource = kingSide ? source + 3 : source - 4;
+      int rookDestination = kingSide ? source + 1 : source - 1;
+      removePiece(rookSource);
+      putPiece(rookDestination, color, ChessPieceType.ROOK);
+      key ^= Zobrist.piece(color, ChessPieceType.ROOK, rookSource)
+              ^ Zobrist.piece(color, ChessPieceType.ROOK, rookDestination);
+    }
+
+    castlingRights &= CASTLING_RIGHTS_MASK[source] & CASTLING_RIGHTS_MASK[destination];
+    enPassantSquare = (flag == PackedMove.PAWN_LONG) ? (source + destination) / 2 : NO_SQUARE;
+    currentPlayerColor = getOpponentPlayerColor();
+    zobristKey = key ^ Zobrist.castling(castlingRights) ^ Zobrist.enPassant(enPassantSquare);
+  }
+
+  // Takes back the last move played with makeMove()
+  public void unmakeMove() {
+    historyLength--;
+    int move = moveHistory[historyLength];
+    int undo = undoHistory[historyLength];
+
+    int source = PackedMove.getSource(move);
+    int destination = PackedMove.getDestination(move);
+    int flag = PackedMove.getFlag(move);
+
+    currentPlayerColor = getOpponentPlayerColor();
+    Color color = currentPlayerColor;
+    ChessPieceType movedType = (flag == PackedMove.PROMOTION)
+            ? ChessPieceType.PAWN
+            : PIECE_TYPES[(this.mailbox[destination] - 1) % 6];
+
+    if (flag == PackedMove.CASTLING) {
+      boolean kingSide = destination > source;
+      removePiece(kingSide ? source + 1 : source - 1);
+      putPiece(kingSide ? source + 3 : source - 4, color, ChessPieceType.ROOK);
+    }
+
+    removePiece(destination);
+    putPiece(source, color, movedType);
+
+    int captured = undo & 0xF;
+    if (captured != 0) {
+      int capturedSquare = destination;
+      if (flag == PackedMove.EN_PASSANT) {
+        capturedSquare += (color == Color.WHITE) ? 8 : -8;
+      }
+      putPiece(capturedSquare, COLORS[(captured - 1) / 6], PIECE_TYPES[(captured - 1) % 6]);
+    }
+
+    castlingRights = (undo >>> 4) & 0xF;
+    enPassantSquare = ((undo >>> 8) & 0x7F) - 1;
+    zobristKey = keyHistory[historyLength];
+  }
+
+  // Passes the turn to the opponent without moving anything (a "null move",
+  // which isn't legal in chess but is used by the search). The null move is in
+  // the history as PackedMove.NONE, and it is taken back by unmakeNullMove().
+  public void makeNullMove() {
+    growHistory();
+
+    undoHistory[historyLength] = (castlingRights << 4) | ((enPassantSquare + 1) << 8);
+    moveHistory[historyLength] = PackedMove.NONE;
+    keyHistory[historyLength] = zobristKey;
+    historyLength++;
+
+    zobristKey ^= Zobrist.enPassant(enPassantSquare) ^ Zobrist.SIDE;
+    enPassantSquare = NO_SQUARE;
+    currentPlayerColor = getOpponentPlayerColor();
+  }
+
+  public void unmakeNullMove() {
+    historyLength--;
+    int undo = undoHistory[historyLength];
+
+    currentPlayerColor = getOpponentPlayerColor();
+    enPassantSquare = ((undo >>> 8) & 0x7F) - 1;
+    zobristKey = keyHistory[historyLength];
+  }
+
+  private void growHistory() {
+    if (moveHistory == null) {
+      moveHistory = new int[INITIAL_HISTORY_SIZE];
+      undoHistory = new int[INITIAL_HISTORY_SIZE];
+      keyHistory = new long[INITIAL_HISTORY_SIZE];
+    } else if (historyLength == moveHistory.length) {
+      moveHistory = Arrays.copyOf(moveHistory, historyLength * 2);
+      undoHistory = Arrays.copyOf(undoHistory, historyLength * 2);
+      keyHistory = Arrays.copyOf(keyHistory, historyLength * 2);
+    }
+  }
+
+  // Last move played with makeMove() (PackedMove.NONE if there is none, or if it
+  // was a null move)
+  public int getLastMove() {
+    return getLastMove(0);
+  }
+
+  // Move played pliesAgo moves before the last one (PackedMove.NONE if there is none)
+  public int getLastMove(int pliesAgo) {
+    int index = historyLength - 1 - pliesAgo;
+    return index >= 0 ? moveHistory[index] : PackedMove.NONE;
+  }
+
+  // Number of moves played with makeMove() and not taken back yet:
+  // the distance from the root of a search started on a copied BitBoard
+  public int getPly() {
+    return historyLength;
+  }
+
+  // Tiles attacked by the piece standing on square (captures only for pawns)
+  public long getAttacks(int square) {
+    int index = this.mailbox[square] - 1;
+    if (index < 0) {
+      return EMPTY;
+    }
+    switch (PIECE_TYPES[index % 6]) {
+      case PAWN:
+        return LeapingPieceAttacks.pawnAttacks(COLORS[index / 6], square);
+      case KNIGHT:
+        return LeapingPieceAttacks.knightAttacks(square);
+      case BISHOP:
+        return SlidingPieceAttacks.bishopAttacks(square, occupancy);
+      case ROOK:
+        return SlidingPieceAttacks.rookAttacks(square, occupancy);
+      case QUEEN:
+        return SlidingPieceAttacks.queenAttacks(square, occupancy);
+      default:
+        return LeapingPieceAttacks.kingAttacks(square);
+    }
+  }
+
+  // True if any piece of byColor attacks the square (whatever is standing on it)
+  public boolean isSquareAttacked(int square, Color byColor) {
+    Color defender = (byColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    long queens = getPieces(byColor, ChessPieceType.QUEEN);
+
+    // A pawn of the defender's color on "square" would capture exactly the attacking pawns
+    return (LeapingPieceAttacks.pawnAttacks(defender, square) & getPieces(byColor, ChessPieceType.PAWN)) != 0
+            || (LeapingPieceAttacks.knightAttacks(square) & getPieces(byColor, ChessPieceType.KNIGHT)) != 0
+            || (LeapingPieceAttacks.kingAttacks(square) & getPieces(byColor, ChessPieceType.KING)) != 0
+            || (SlidingPieceAttacks.bishopAttacks(square, occupancy)
+                & (getPieces(byColor, ChessPieceType.BISHOP) | queens)) != 0
+            || (SlidingPieceAttacks.rookAttacks(square, occupancy)
+                & (getPieces(byColor, ChessPieceType.ROOK) | queens)) != 0;
+  }
+
+  // Every tile attacked by the pieces of color
+  public long getAttackMap(Color color) {
+    long attackMap = EMPTY;
+    long pieces = this.colorOccupancy[color.ordinal()];
+    while (pieces != 0) {
+      attackMap |= getAttacks(Long.numberOfTrailingZeros(pieces));
+      pieces &= pieces - 1;
+    }
+    return attackMap;
+  }
+
+  // Pieces of byColor attacking square, as if the tiles were occupied as in occupancy
+  // (sliders "see through" the pieces missing from occupancy)
+  public long getAttackers(int square, Color byColor, long occupancy) {
+    Color defender = (byColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    long queens = getPieces(byColor, ChessPieceType.QUEEN);
+
+    return (LeapingPieceAttacks.pawnAttacks(defender, square) & getPieces(byColor, ChessPieceType.PAWN))
+            | (LeapingPieceAttacks.knightAttacks(square) & getPieces(byColor, ChessPieceType.KNIGHT))
+            | (LeapingPieceAttacks.kingAttacks(square) & getPieces(byColor, ChessPieceType.KING))
+            | (SlidingPieceAttacks.bishopAttacks(square, occupancy)
+                & (getPieces(byColor, ChessPieceType.BISHOP) | queens))
+            | (SlidingPieceAttacks.rookAttacks(square, occupancy)
+                & (getPieces(byColor, ChessPieceType.ROOK) | queens));
+  }
+
+  // Material won (or lost, if negative) by the current player with a capture,
+  // once every capture that follows on the same tile has been played: each side
+  // recaptures with its least valuable attacker, and stops when going on would
+  // lose material. The attackers hidden behind the ones that moved (x-rays) join
+  // in as the occupancy empties. Pins are ignored.
+  // See: https://www.chessprogramming.org/Static_Exchange_Evaluation
+  public int staticExchangeEvaluation(int move) {
+    if (PackedMove.isCastling(move)) {
+      return 0;
+    }
+    int source = PackedMove.getSource(move);
+    int destination = PackedMove.getDestination(move);
+    ChessPieceType captured = PackedMove.getCapturedType(move);
+    ChessPieceType attacker = PackedMove.getMovedType(move);
+
+    // gains[i]: material won by the side that plays the i-th capture, if the
+    // exchange stopped there
+    if (exchangeGains == null) {
+      exchangeGains = new int[32];
+    }
+    int[] gains = exchangeGains;
+    gains[0] = (captured == null) ? 0 : captured.getValue();
+    if (PackedMove.isPromotion(move)) {
+      attacker = PackedMove.getPromotionType(move);
+      gains[0] += attacker.getValue() - ChessPieceType.PAWN.getValue();
+    }
+
+    long occupancy = this.occupancy ^ bit(source);
+    if (PackedMove.getFlag(move) == PackedMove.EN_PASSANT) {
+      occupancy ^= bit(destination + (currentPlayerColor == Color.WHITE ? 8 : -8));
+    }
+    Color side = getOpponentPlayerColor();
+    long attackers = (getAttackers(destination, Color.WHITE, occupancy)
+            | getAttackers(destination, Color.BLACK, occupancy)) & occupancy;
+
+    int depth = 0;
+    while (true) {
+      long sideAttackers = attackers & colorOccupancy[side.ordinal()];
+      if (sideAttackers == 0) {
+        break;
+      }
+      // Least valuable attacker of the side
+      ChessPieceType nextAttacker = null;
+      long from = 0;
+      for (ChessPieceType type : PIECE_TYPES) {
+        from = sideAttackers & getPieces(side, type);
+        if (from != 0) {
+          nextAttacker = type;
+          break;
+        }
+      }
+      Color other = (side == Color.WHITE) ? Color.BLACK : Color.WHITE;
+      if (nextAttacker == ChessPieceType.KING
+              && (attackers & colorOccupancy[other.ordinal()]) != 0) {
+        // The King can't capture a defended piece
+        break;
+      }
+
+      depth++;
+      gains[depth] = attacker.getValue() - gains[depth - 1];
+      attacker = nextAttacker;
+      occupancy ^= Long.lowestOneBit(from);
+      attackers = (getAttackers(destination, Color.WHITE, occupancy)
+              | getAttackers(destination, Color.BLACK, occupancy)) & occupancy;
+      side = other;
+    }
+
+    // Each side can stop capturing when going on would be worse
+    while (depth > 0) {
+      gains[depth - 1] = -Math.max(-gains[depth - 1], gains[depth]);
+      depth--;
+    }
+    return gains[0];
+  }
+
+  public boolean isKingInCheck(Color color) {
+    int kingSquare = getKingSquare(color);
+    return kingSquare != NO_SQUARE
+            && isSquareAttacked(kingSquare, color == Color.WHITE ? Color.BLACK : Color.WHITE);
+  }
+
+  public Color getCurrentPlayerColor() {
+    return currentPlayerColor;
+  }
+
+  public Color getOpponentPlayerColor() {
+    return currentPlayerColor == Color.WHITE ? Color.BLACK : Color.WHITE;
+  }
+
+  public void setCurrentPlayerColor(Color currentPlayerColor) {
+    this.currentPlayerColor = currentPlayerColor;
+  }
+
+  // Square "behind" the pawn that has just made a long move (NO_SQUARE if none)
+  public int getEnPassantSquare() {
+    return enPassantSquare;
+  }
+
+  public void setEnPassantSquare(int enPassantSquare) {
+    this.enPassantSquare = enPassantSquare;
+  }
+
+  public long getZobristKey() {
+    return zobristKey;
+  }
+
+  public void setZobristKey(long zobristKey) {
+    this.zobristKey = zobristKey;
+  }
+
+  public int getCastlingRights() {
+    return castlingRights;
+  }
+
+  public void setCastlingRights(int castlingRights) {
+    this.castlingRights = castlingRights;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder();
+    for (int square = 0; square < 64; square++) {
+      ChessPieceType type = getPieceType(square);
+      if (type == null) {
+        sb.append('.');
+      } else {
+        char c = type == ChessPieceType.PAWN ? 'P' : type.getShortName().charAt(0);
+        sb.append(getPieceColor(square) == Color.WHITE ? c : Character.toLowerCase(c));
+      }
+      if (column(square) == 7) {
+        sb.append('\n');
+      }
+    }
+    return sb.toString();
+  }
+}
@@ -19,84 +19,66 @@ public class Board {
   private final Player opponentPlayer;
   private final ArrayList<Piece> whitePieces;
   private final ArrayList<Piece> blackPieces;
+  private final BitBoard bitBoard;
+  // Tiles attacked by each player (indexed by Color.ordinal()), computed on demand
+  private volatile long[] attackMaps;
 
   private final Piece enPassant;
+  private final long zobristKey;
 
+  // zobristKey covers the pieces and the side to move: the castling rights and
+  // the en passant tile are known only here, so their part is added below
   public Board(Piece[] boardPositions,
                Move generatorMove,
                Color currentPlayerColor,
                Piece enPassant,
                int whiteScore,
-               int blackScore) {
+               int blackScore,
+               long zobristKey) {
     this.boardPositions = boardPositions;
     this.generatorMove = generatorMove;
     this.enPassant = enPassant;
     this.whitePieces = new ArrayList<>();
     this.blackPieces = new ArrayList<>();
-
-    King currentPlayerKing = null;
-    King opponentPlayerKing = null;
+    this.bitBoard = new BitBoard(currentPlayerColor);
 
     for (Piece p : boardPositions) {
       if (p != null) {
+        bitBoard.putPiece(p);
         if (p.getColor() == Color.WHITE) {
           whitePieces.add(p);
         } else {
           blackPieces.add(p);
         }
-
-        if (p.getType() == ChessPieceType.KING) {
-          if (p.getColor() == currentPlayerColor) {
-            currentPlayerKing = (King) p;
-          } else {
-            opponentPlayerKing = (King) p;
-          }
-        }
       }
     }
 
-    // Current player / Opponent player creation
-    Color opponentPlayerColor = (currentPlayerColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    bitBoard.setCastlingRights(computeCastlingRights());
+    if (enPassant != null) {
+      // The capturing pawn lands on the tile "behind" the pawn that made the long move
+      int behind = enPassant.getColor() == Color.WHITE ? 8 : -8;
+      bitBoard.setEnPassantSquare(enPassant.getPosition().getValue() + behind);
+    }
 
-    // Calculate legal moves for both players
-    ArrayList<Move> currentPlayerLegalMoves = (currentPlayerColor == Color.WHITE)
-            ? getLegalMoves(this.whitePieces)
-            : this.getLegalMoves(this.blackPieces);
-    ArrayList<Move> opponentPlayerLegalMoves = (currentPlayerColor == Color.WHITE)
-            ? this.getLegalMoves(this.blackPieces)
-            : getLegalMoves(this.whitePieces);
-
-    ArrayList<Move> currentPlayerKingThreats = getThreats(
-            currentPlayerKing.getPosition().getValue(),
-            opponentPlayerLegalMoves
-    );
+    this.zobristKey = zobristKey
+            ^ Zobrist.castling(bitBoard.getCastlingRights())
+            ^ Zobrist.enPassant(bitBoard.getEnPassantSquare());
+    bitBoard.setZobristKey(this.zobristKey);
 
-    ArrayList<Move> opponentPlayerKingThreats = getThreats(
-            opponentPlayerKing.getPosition().getValue(),
-            currentPlayerLegalMoves
-    );
+    // Current player / Opponent player creation
+    // (moves are generated only when somebody asks for them, see Player.getLegalMoves())
+    Color opponentPlayerColor = (currentPlayerColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
 
     this.currentPlayer = new Player(
             this,
             currentPlayerColor,
-            currentPlayerLegalMoves,
-            currentPlayerKingThreats,
             currentPlayerColor == Color.WHITE ? whiteScore : blackScore
     );
     this.opponentPlayer = new Player(
             this,
             opponentPlayerColor,
-            opponentPlayerLegalMoves,
-            opponentPlayerKingThreats,
             opponentPlayerColor == Color.WHITE ? whiteScore : blackScore
     );
-
-    // Search for castling moves
-    currentPlayerLegalMoves.addAll(currentPlayerKing.getCastlingMoves(this));
-    opponentPlayerLegalMoves.addAll(opponentPlayerKing.getCastlingMoves(this));
-
-    currentPlayer.setLegalMoves(currentPlayerLegalMoves);
-    opponentPlayer.setLegalMoves(opponentPlayerLegalMoves);
   }
 
   // Creates a "standard" starting board
@@ -144,23 +126,27 @@ public class Board {
     whitePieces.add(new Knight(Color.WHITE, Position.G1));
     whitePieces.add(new Rook(Color.WHITE, Position.H1));
 
+    this.bitBoard = new BitBoard(startingPlayerColor);
+
     for (Piece p : blackPieces) {
       putPiece(p);
+      bitBoard.putPiece(p);
       blackScore += p.getType().getValue();
     }
 
     for (Piece p : whitePieces) {
       putPiece(p);
+      bitBoard.putPiece(p);
       whiteScore += p.getType().getValue();
     }
 
+    bitBoard.setCastlingRights(computeCastlingRights());
+    this.zobristKey = Zobrist.compute(bitBoard);
+    bitBoard.setZobristKey(this.zobristKey);
+
     this.currentPlayer = new Player(
             this,
             startingPlayerColor,
-            (startingPlayerColor == Color.WHITE)
-                    ? getLegalMoves(this.whitePieces)
-                    : getLegalMoves(this.blackPieces),
-            new ArrayList<>(),
             (startingPlayerColor == Color.WHITE)
                     ? whiteScore
                     : blackScore
@@ -168,10 +154,6 @@ public class Board {
     this.opponentPlayer = new Player(
             this,
             (startingPlayerColor == Color.WHITE) ? Color.BLACK : Color.WHITE,
-            (startingPlayerColor == Color.WHITE)
-                    ? getLegalMoves(this.blackPieces)
-                    : getLegalMoves(this.whitePieces),
-            new ArrayList<>(),
             (startingPlayerColor == Color.WHITE)
                     ? whiteScore
                     : blackScore
@@ -206,6 +188,15 @@ public class Board {
     return enPassant;
   }
 
+  public BitBoard getBitBoard() {
+    return bitBoard;
+  }
+
+  // Same key for the same position, whatever moves led to it
+  public long getZobristKey() {
+    return zobristKey;
+  }
+
   public ArrayList<Move> getAllPossibleLegalMoves() {
     ArrayList<Move> moves = new ArrayList<>();
     moves.addAll(currentPlayer.getLegalMoves());
@@ -235,6 +226,28 @@ public class Board {
     return this.boardPositions[pos];
   }
 
+  // Legal moves of the current player, from the BitBoard generator: moves
+  // leaving the King in check are never generated
+  ArrayList<Move> getCurrentPlayerLegalMoves() {
+    MoveList packedMoves = new MoveList();
+    MoveGenerator.generateLegalMoves(this.bitBoard, packedMoves);
+    ArrayList<Move> moves = new ArrayList<>(packedMoves.size());
+    for (int i = 0; i < packedMoves.size(); i++) {
+      moves.add(PackedMove.toMove(this, packedMoves.get(i)));
+    }
+    return moves;
+  }
+
+  // Moves of every piece of color, castling excluded
+  ArrayList<Move> getPieceMoves(Color color) {
+    return getLegalMoves(color == Color.WHITE ? this.whitePieces : this.blackPieces);
+  }
+
+  ArrayList<Move> getCastlingMoves(Color color) {
+    int kingSquare = this.bitBoard.getKingSquare(color);
+    return ((King) this.boardPositions[kingSquare]).getCastlingMoves(this);
+  }
+
   private ArrayList<Move> getLegalMoves(ArrayList<Piece> pieces) {
     ArrayList<Move> legalMoves = new ArrayList<>();
     for (Piece p : pieces) {
@@ -244,6 +257,50 @@ public class Board {
     return legalMoves;
   }
 
+  // Castling is still possible as long as both the King and the Rook have never moved
+  private int computeCastlingRights() {
+    int rights = 0;
+    if (hasNotMoved(Position.E1, ChessPieceType.KING, Color.WHITE)) {
+      if (hasNotMoved(Position.H1, ChessPieceType.ROOK, Color.WHITE)) {
+        rights |= BitBoard.WHITE_KING_SIDE;
+      }
+      if (hasNotMoved(Position.A1, ChessPieceType.ROOK, Color.WHITE)) {
+        rights |= BitBoard.WHITE_QUEEN_SIDE;
+      }
+    }
+    if (hasNotMoved(Position.E8, ChessPieceType.KING, Color.BLACK)) {
+      if (hasNotMoved(Position.H8, ChessPieceType.ROOK, Color.BLACK)) {
+        rights |= BitBoard.BLACK_KING_SIDE;
+      }
+      if (hasNotMoved(Position.A8, ChessPieceType.ROOK, Color.BLACK)) {
+        rights |= BitBoard.BLACK_QUEEN_SIDE;
+      }
+    }
+    return rights;
+  }
+
+  private boolean hasNotMoved(Position position, ChessPieceType type, Color color) {
+    Piece p = this.boardPositions[position.getValue()];
+    return p != null && p.getType() == type && p.getColor() == color && p.isFirstMove();
+  }
+
+  // Table lookups on the BitBoard: no move is generated
+  public boolean isSquareAttacked(int tile, Color byColor) {
+    return this.bitBoard.isSquareAttacked(tile, byColor);
+  }
+
+  public long getAttackMap(Color color) {
+    long[] maps = this.attackMaps;
+    if (maps == null) {
+      // Filled before being published, as the Player move lists
+      maps = new long[2];
+      maps[Color.WHITE.ordinal()] = this.bitBoard.getAttackMap(Color.WHITE);
+      maps[Color.BLACK.ordinal()] = this.bitBoard.getAttackMap(Color.BLACK);
+      this.attackMaps = maps;
+    }
+    return maps[color.ordinal()];
+  }
+
   public ArrayList<Move> getThreats(int tile, ArrayList<Move> candidateThreats) {
     ArrayList<Move> result = new ArrayList<>();
     for (Move threat : candidateThreats) {
@@ -256,35 +313,16 @@ public class Board {
 
   public boolean isCheckMateAvoidable(Player player) {
     if (player.isKingInCheck()) {
-      // Look for a move that can "free" the king
-      for (Move m : player.getLegalMoves()) {
-        Board nextBoard = m.makeMove();
-        // ...found a move!
-        if (!nextBoard.getOpponentPlayer().isKingInCheck()) {
-          return true;
-        }
-      }
-      return false;
+      // Every legal move "frees" the king
+      return !player.getLegalMoves().isEmpty();
     } else {
       return true;
     }
   }
 
   public boolean isInStaleMate(Player player) {
-    // If the king is not in check...
-    if (!player.isKingInCheck()) {
-      // ...and everything he does will put him in check...
-      for (Move m : player.getLegalMoves()) {
-        Board nextBoard = m.makeMove();
-        if (!nextBoard.getOpponentPlayer().isKingInCheck()) {
-          return false;
-        }
-      }
-      // ...then -> stalemate
-      return true;
-    } else {
-      return false;
-    }
+    // If the king is not in check and there is nothing he can do -> stalemate
+    return !player.isKingInCheck() && player.getLegalMoves().isEmpty();
   }
 
   public boolean matchIsOver() {
@@ -87,10 +87,15 @@ public class CastlingMove extends Move {
     newBoardPositions[castleSource.getValue()] = null;  // Remove old rook
     newBoardPositions[castleDestination.getValue()] = rookClone;
 
+    long zobristKey = getPartialZobristKey()
+            ^ Zobrist.piece(kingClone, this.getDestination().getValue())
+            ^ Zobrist.piece(castle, castleSource.getValue())
+            ^ Zobrist.piece(rookClone, castleDestination.getValue());
+
     // Choose the next player
     Color next = (currentPlayerColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
 
-    return new Board(newBoardPositions, this, next, null, whiteScore, blackScore);
+    return new Board(newBoardPositions, this, next, null, whiteScore, blackScore, zobristKey);
   }
 
   /*
@@ -73,10 +73,14 @@ public class EnPassantCaptureMove extends Move {
     clonePawn.setPosition(getDestination());
     newBoardPositions[getDestination().getValue()] = clonePawn;
 
+    long zobristKey = getPartialZobristKey()
+            ^ Zobrist.piece(enPassantToCapture, enPassantToCapture.getPosition().getValue())
+            ^ Zobrist.piece(clonePawn, getDestination().getValue());
+
     // Choose the next player
     Color next = (currentPlayerColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
 
-    return new Board(newBoardPositions, this, next, null, whiteScore, blackScore);
+    return new Board(newBoardPositions, this, next, null, whiteScore, blackScore, zobristKey);
   }
 
   /*
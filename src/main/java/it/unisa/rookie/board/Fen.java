@@ -0,0 +1,117 @@
+package it.unisa.rookie.board;
+
+import it.unisa.rookie.piece.Bishop;
+import it.unisa.rookie.piece.ChessPieceType;
+import it.unisa.rookie.piece.Color;
+import it.unisa.rookie.piece.King;
+import it.unisa.rookie.piece.Knight;
+import it.unisa.rookie.piece.Pawn;
+import it.unisa.rookie.piece.Piece;
+import it.unisa.rookie.piece.Position;
+import it.unisa.rookie.piece.Queen;
+import it.unisa.rookie.piece.Rook;
+
+// Boards from Forsyth-Edwards Notation strings, used to set up test positions
+// (e.g. "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1").
+// See: https://www.chessprogramming.org/Forsyth-Edwards_Notation
+//
+// Board has no castling rights of its own: they become the isFirstMove() flag of
+// the King and of the Rooks. The move counters are ignored.
+public final class Fen {
+  public static final String STARTING_POSITION = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+  private Fen() {
+  }
+
+  public static Board toBoard(String fen) {
+    String[] fields = fen.trim().split("\\s+");
+    if (fields.length < 2) {
+      throw new IllegalArgumentException("Invalid FEN: " + fen);
+    }
+    String castling = fields.length > 2 ? fields[2] : "-";
+    String enPassant = fields.length > 3 ? fields[3] : "-";
+
+    Color currentPlayerColor;
+    if (fields[1].equals("w")) {
+      currentPlayerColor = Color.WHITE;
+    } else if (fields[1].equals("b")) {
+      currentPlayerColor = Color.BLACK;
+    } else {
+      throw new IllegalArgumentException("Invalid side to move in FEN: " + fen);
+    }
+
+    // Rows are listed from the 8th to the 1st, as the tiles of Position
+    Piece[] boardPositions = new Piece[64];
+    int whiteScore = 0;
+    int blackScore = 0;
+    long zobristKey = Zobrist.side(currentPlayerColor);
+    int square = 0;
+    for (char c : fields[0].toCharArray()) {
+      if (c == '/') {
+        continue;
+      }
+      if (Character.isDigit(c)) {
+        square += c - '0';
+        continue;
+      }
+      if (square >= 64) {
+        throw new IllegalArgumentException("Too many tiles in FEN: " + fen);
+      }
+      Color color = Character.isUpperCase(c) ? Color.WHITE : Color.BLACK;
+      Piece p = createPiece(Character.toLowerCase(c), color, Position.fromValue(square), castling);
+      if (p == null) {
+        throw new IllegalArgumentException("Invalid piece '" + c + "' in FEN: " + fen);
+      }
+      boardPositions[square] = p;
+      zobristKey ^= Zobrist.piece(p, square);
+      if (color == Color.WHITE) {
+        whiteScore += p.getType().getValue();
+      } else {
+        blackScore += p.getType().getValue();
+      }
+      square++;
+    }
+    if (square != 64) {
+      throw new IllegalArgumentException("Wrong number of tiles in FEN: " + fen);
+    }
+
+    // Board wants the pawn that has just made its long move, not the tile behind it
+    Piece enPassantPawn = null;
+    if (!enPassant.equals("-")) {
+      int behind = Position.valueOf(enPassant.toUpperCase()).getValue();
+      enPassantPawn = boardPositions[behind + (currentPlayerColor == Color.WHITE ? 8 : -8)];
+      if (enPassantPawn == null || enPassantPawn.getType() != ChessPieceType.PAWN) {
+        throw new IllegalArgumentException("Invalid en passant tile in FEN: " + fen);
+      }
+    }
+
+    return new Board(boardPositions, null, currentPlayerColor, enPassantPawn,
+            whiteScore, blackScore, zobristKey);
+  }
+
+  private static Piece createPiece(char type, Color color, Position position, String castling) {
+    boolean white = color == Color.WHITE;
+    switch (type) {
+      case 'p':
+        // Pawns can make their long move only from their starting row
+        return new Pawn(color, position, position.getY() == (white ? 1 : 6));
+      case 'n':
+        return new Knight(color, position, false);
+      case 'b':
+        return new Bishop(color, position, false);
+      case 'q':
+        return new Queen(color, position, false);
+      case 'k':
+        return new King(color, position,
+                castling.indexOf(white ? 'K' : 'k') >= 0 || castling.indexOf(white ? 'Q' : 'q') >= 0);
+      case 'r':
+        boolean kingSide = position == (white ? Position.H1 : Position.H8)
+                && castling.indexOf(white ? 'K' : 'k') >= 0;
+        boolean queenSide = position == (white ? Position.A1 : Position.A8)
+                && castling.indexOf(white ? 'Q' : 'q') >= 0;
+        return new Rook(color, position, kingSide || queenSide);
+      default:
+        return null;
+    }
+  }
+}
@@ -0,0 +1,72 @@
+package it.unisa.rookie.board;
+
+import it.unisa.rookie.piece.Color;
+
+// What the search learned about the quiet moves, to order them:
+// - the history ("butterfly") table counts the cutoffs of each move by
+//   [color][from][to], weighted by the depth of the search, wherever they
+//   happened in the tree;
+// - the countermove table keeps, for each move of the opponent (by moved piece
+//   and destination), the last quiet move that refuted it.
+// See: https://www.chessprogramming.org/History_Heuristic
+// See: https://www.chessprogramming.org/Countermove_Heuristic
+public class HistoryTable {
+  // Past this value every score is halved, so recent cutoffs weigh more
+  private static final int MAX_SCORE = 1 << 20;
+
+  private final int[][][] history;
+  // Indexed by BitBoard.pieceIndex() of the moved piece and its destination
+  private final int[][] countermoves;
+
+  public HistoryTable() {
+    this.history = new int[2][64][64];
+    this.countermoves = new int[12][64];
+  }
+
+  public int getScore(Color color, int move) {
+    return history[color.ordinal()][PackedMove.getSource(move)][PackedMove.getDestination(move)];
+  }
+
+  // The quiet move caused a cutoff in a search depth plies deep
+  public void addCutoff(Color color, int move, int depth) {
+    int[] scores = history[color.ordinal()][PackedMove.getSource(move)];
+    int destination = PackedMove.getDestination(move);
+    scores[destination] += depth * depth;
+    if (scores[destination] > MAX_SCORE) {
+      age();
+    }
+  }
+
+  // The quiet move that refuted previousMove last time (PackedMove.NONE if
+  // there is none, or if previousMove is PackedMove.NONE)
+  public int getCountermove(Color color, int previousMove) {
+    if (previousMove == PackedMove.NONE) {
+      return PackedMove.NONE;
+    }
+    return countermoves[countermoveIndex(color, previousMove)][PackedMove.getDestination(previousMove)];
+  }
+
+  // color is the player of move: previousMove was played by the opponent
+  public void setCountermove(Color color, int previousMove, int move) {
+    if (previousMove != PackedMove.NONE) {
+      countermoves[countermoveIndex(color, previousMove)][PackedMove.getDestination(previousMove)] = move;
+    }
+  }
+
+  // Halves every score: called at the start of each search too, so that the
+  // table follows the game
+  public void age() {
+    for (int[][] colorScores : history) {
+      for (int[] scores : colorScores) {
+        for (int i = 0; i < scores.length; i++) {
+          scores[i] /= 2;
+        }
+      }
+    }
+  }
+
+  private static int countermoveIndex(Color color, int previousMove) {
+    Color opponent = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    return BitBoard.pieceIndex(opponent, PackedMove.getMovedType(previousMove));
+  }
+}
@@ -0,0 +1,61 @@
+package it.unisa.rookie.board;
+
+import it.unisa.rookie.piece.Color;
+
+// Knight, King and Pawn (captures only) attacks for every square.
+//
+// These pieces always reach the same tiles, whatever the occupancy is, so the
+// tables are computed once, at class initialization.
+public final class LeapingPieceAttacks {
+  private static final int[][] KNIGHT_STEPS = {
+      {-2, -1}, {-1, -2}, {1, -2}, {2, -1}, {2, 1}, {1, 2}, {-1, 2}, {-2, 1}
+  };
+  private static final int[][] KING_STEPS = {
+      {-1, -1}, {0, -1}, {1, -1}, {-1, 0}, {1, 0}, {-1, 1}, {0, 1}, {1, 1}
+  };
+  // White pawns capture "up" the board (towards row 0), Black pawns "down"
+  private static final int[][] WHITE_PAWN_STEPS = {{-1, -1}, {1, -1}};
+  private static final int[][] BLACK_PAWN_STEPS = {{-1, 1}, {1, 1}};
+
+  private static final long[] KNIGHT_ATTACKS = new long[64];
+  private static final long[] KING_ATTACKS = new long[64];
+  // Indexed by Color.ordinal()
+  private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+  static {
+    for (int square = 0; square < 64; square++) {
+      KNIGHT_ATTACKS[square] = steps(square, KNIGHT_STEPS);
+      KING_ATTACKS[square] = steps(square, KING_STEPS);
+      PAWN_ATTACKS[Color.WHITE.ordinal()][square] = steps(square, WHITE_PAWN_STEPS);
+      PAWN_ATTACKS[Color.BLACK.ordinal()][square] = steps(square, BLACK_PAWN_STEPS);
+    }
+  }
+
+  private LeapingPieceAttacks() {
+  }
+
+  public static long knightAttacks(int square) {
+    return KNIGHT_ATTACKS[square];
+  }
+
+  public static long kingAttacks(int square) {
+    return KING_ATTACKS[square];
+  }
+
+  // Tiles attacked by a pawn of the given color standing on square
+  public static long pawnAttacks(Color color, int square) {
+    return PAWN_ATTACKS[color.ordinal()][square];
+  }
+
+  private static long steps(int square, int[][] steps) {
+    long result = 0;
+    for (int[] s : steps) {
+      int x = BitBoard.column(square) + s[0];
+      int y = BitBoard.row(square) + s[1];
+      if (x >= 0 && x < 8 && y >= 0 && y < 8) {
+        result |= BitBoard.bit(y * 8 + x);
+      }
+    }
+    return result;
+  }
+}
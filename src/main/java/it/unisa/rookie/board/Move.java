@@ -53,6 +53,19 @@ public class Move {
     return this.board.getPiece(this.destination.getValue()) != null;
   }
 
+  // Zobrist key of the board generated by this move, still without the piece(s)
+  // landing on the board and the new castling rights and en passant tile:
+  // the side to move changes, the moved piece leaves its source tile and the
+  // old castling rights and en passant tile are removed
+  protected long getPartialZobristKey() {
+    BitBoard bitBoard = this.board.getBitBoard();
+    return this.board.getZobristKey()
+            ^ Zobrist.SIDE
+            ^ Zobrist.piece(this.movedPiece, this.source.getValue())
+            ^ Zobrist.castling(bitBoard.getCastlingRights())
+            ^ Zobrist.enPassant(bitBoard.getEnPassantSquare());
+  }
+
   // Generates a completely new board
   public Board makeMove() {
     ArrayList<Piece> whitePieces = new ArrayList<>(this.board.getWhitePieces());
@@ -122,10 +135,15 @@ public class Move {
     clone.setPosition(destination);
     newBoardPositions[destination.getValue()] = clone;
 
+    long zobristKey = getPartialZobristKey() ^ Zobrist.piece(clone, destination.getValue());
+    if (attacked != null) {
+      zobristKey ^= Zobrist.piece(attacked, destination.getValue());
+    }
+
     // Choose the next player
     Color next = (currentPlayerColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
 
-    return new Board(newBoardPositions, this, next, null, whiteScore, blackScore);
+    return new Board(newBoardPositions, this, next, null, whiteScore, blackScore, zobristKey);
   }
 
 
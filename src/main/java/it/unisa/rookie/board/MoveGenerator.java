@@ -0,0 +1,582 @@
+package it.unisa.rookie.board;
+
+import it.unisa.rookie.piece.ChessPieceType;
+import it.unisa.rookie.piece.Color;
+import it.unisa.rookie.piece.Position;
+
+// Move generation on a BitBoard, producing PackedMove values.
+//
+// Pseudo-legal moves follow the same rules as Piece.getLegalMoves(): they can
+// still leave the King in check, so they have to be checked (see isLegal()).
+// Legal moves are filtered while they are generated, using the pieces that
+// give check and the pieces pinned to their King (see generateLegalMoves()).
+public final class MoveGenerator {
+  public static final int MAX_MOVES = 256;
+
+  // What generateLegalMoves() produces: captures (en passant included) and
+  // quiet moves (castling and non-capturing promotions included) are
+  // generated separately by MovePicker; the quiescence search only needs the
+  // moves that change the material (captures and every promotion)
+  public static final int ALL_MOVES = 0;
+  public static final int CAPTURES = 1;
+  public static final int QUIET_MOVES = 2;
+  public static final int CAPTURES_AND_PROMOTIONS = 3;
+
+  private static final long ALL_TILES = ~0L;
+
+  private static final long RANK_3 = BitBoard.RANK_8 << 40;
+  private static final long RANK_6 = BitBoard.RANK_8 << 16;
+
+  private static final ChessPieceType[] PROMOTION_TYPES = {
+      ChessPieceType.QUEEN, ChessPieceType.ROOK, ChessPieceType.BISHOP, ChessPieceType.KNIGHT
+  };
+
+  // Tiles strictly between two tiles on the same row, column or diagonal (empty otherwise)
+  private static final long[][] BETWEEN = new long[64][64];
+  // The whole row, column or diagonal through two tiles, them included (empty
+  // if they are not on one)
+  private static final long[][] LINE = new long[64][64];
+
+  static {
+    for (int a = 0; a < 64; a++) {
+      for (int b = 0; b < 64; b++) {
+        long ends = BitBoard.bit(a) | BitBoard.bit(b);
+        if ((SlidingPieceAttacks.rookAttacks(a, BitBoard.EMPTY) & BitBoard.bit(b)) != 0) {
+          BETWEEN[a][b] = SlidingPieceAttacks.rookAttacks(a, BitBoard.bit(b))
+                  & SlidingPieceAttacks.rookAttacks(b, BitBoard.bit(a));
+          LINE[a][b] = (SlidingPieceAttacks.rookAttacks(a, BitBoard.EMPTY)
+                  & SlidingPieceAttacks.rookAttacks(b, BitBoard.EMPTY)) | ends;
+        } else if ((SlidingPieceAttacks.bishopAttacks(a, BitBoard.EMPTY) & BitBoard.bit(b)) != 0) {
+          BETWEEN[a][b] = SlidingPieceAttacks.bishopAttacks(a, BitBoard.bit(b))
+                  & SlidingPieceAttacks.bishopAttacks(b, BitBoard.bit(a));
+          LINE[a][b] = (SlidingPieceAttacks.bishopAttacks(a, BitBoard.EMPTY)
+                  & SlidingPieceAttacks.bishopAttacks(b, BitBoard.EMPTY)) | ends;
+        }
+      }
+    }
+  }
+
+  private MoveGenerator() {
+  }
+
+  // Fills moves with the legal moves of the player who has to move and returns how many they are.
+  // 0 means checkmate (if the King is in check) or stalemate.
+  public static int generateLegalMoves(BitBoard board, MoveList moves) {
+    return generateLegalMoves(board, moves, ALL_MOVES);
+  }
+
+  // Fills moves with the legal captures, quiet moves or both (see ALL_MOVES,
+  // CAPTURES, QUIET_MOVES and CAPTURES_AND_PROMOTIONS) and returns how many they are
+  public static int generateLegalMoves(BitBoard board, MoveList moves, int kind) {
+    moves.clear();
+    Color color = board.getCurrentPlayerColor();
+    Color opponent = board.getOpponentPlayerColor();
+    int kingSquare = board.getKingSquare(color);
+    long own = board.getOccupancy(color);
+    long enemies = board.getOccupancy(opponent);
+    long occupancy = board.getOccupancy();
+    long targetMask = (kind == CAPTURES || kind == CAPTURES_AND_PROMOTIONS)
+            ? enemies
+            : (kind == QUIET_MOVES) ? ~occupancy : ALL_TILES;
+
+    long kingTargets = getSafeKingTargets(board, color, kingSquare) & targetMask;
+    while (kingTargets != 0) {
+      int destination = Long.numberOfTrailingZeros(kingTargets);
+      kingTargets &= kingTargets - 1;
+      moves.add(PackedMove.of(kingSquare, destination, PackedMove.NORMAL,
+              ChessPieceType.KING, board.getPieceType(destination)));
+    }
+
+    long checkers = board.getAttackers(kingSquare, opponent, occupancy);
+    if (Long.bitCount(checkers) > 1) {
+      // Double check: only the King can move
+      return moves.size();
+    }
+    long checkMask = getCheckMask(kingSquare, checkers);
+    if (checkers == 0 && (kind == ALL_MOVES || kind == QUIET_MOVES)) {
+      generateCastlingMoves(board, color, moves);
+    }
+    long pinned = getPinnedPieces(board, color, kingSquare);
+
+    generateLegalPawnMoves(board, color, kingSquare, checkMask, pinned, kind, moves);
+
+    long pieces = own & ~board.getPieces(color, ChessPieceType.PAWN) & ~BitBoard.bit(kingSquare);
+    while (pieces != 0) {
+      int source = Long.numberOfTrailingZeros(pieces);
+      pieces &= pieces - 1;
+      long targets = board.getAttacks(source) & ~own & checkMask & targetMask;
+      if ((pinned & BitBoard.bit(source)) != 0) {
+        targets &= LINE[kingSquare][source];
+      }
+      addMoves(board, source, targets, moves);
+    }
+    return moves.size();
+  }
+
+  // The tiles the King of color can step to without being attacked. The King
+  // can't stay on the line of a slider that gives check, so it is removed from
+  // the occupancy before looking for attacked tiles.
+  private static long getSafeKingTargets(BitBoard board, Color color, int kingSquare) {
+    Color opponent = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    long kingOccupancy = board.getOccupancy() & ~BitBoard.bit(kingSquare);
+    long targets = LeapingPieceAttacks.kingAttacks(kingSquare) & ~board.getOccupancy(color);
+    long safeTargets = BitBoard.EMPTY;
+    while (targets != 0) {
+      int destination = Long.numberOfTrailingZeros(targets);
+      targets &= targets - 1;
+      if (board.getAttackers(destination, opponent, kingOccupancy) == 0) {
+        safeTargets |= BitBoard.bit(destination);
+      }
+    }
+    return safeTargets;
+  }
+
+  // The tiles where the other pieces can go with a single checker: capturing it
+  // or blocking its line (every tile when the King is not in check)
+  private static long getCheckMask(int kingSquare, long checkers) {
+    if (checkers == 0) {
+      return ALL_TILES;
+    }
+    return checkers | BETWEEN[kingSquare][Long.numberOfTrailingZeros(checkers)];
+  }
+
+  // The pieces of color pinned to their King: a pinned piece can only move along
+  // the line through its King (LINE[kingSquare][source]), up to the pinning piece
+  private static long getPinnedPieces(BitBoard board, Color color, int kingSquare) {
+    Color opponent = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    long own = board.getOccupancy(color);
+    long enemies = board.getOccupancy(opponent);
+    long occupancy = board.getOccupancy();
+    long pinned = BitBoard.EMPTY;
+    long opponentQueens = board.getPieces(opponent, ChessPieceType.QUEEN);
+    long pinners = (SlidingPieceAttacks.rookAttacks(kingSquare, enemies)
+            & (board.getPieces(opponent, ChessPieceType.ROOK) | opponentQueens))
+            | (SlidingPieceAttacks.bishopAttacks(kingSquare, enemies)
+            & (board.getPieces(opponent, ChessPieceType.BISHOP) | opponentQueens));
+    while (pinners != 0) {
+      int pinner = Long.numberOfTrailingZeros(pinners);
+      pinners &= pinners - 1;
+      long blockers = BETWEEN[kingSquare][pinner] & occupancy;
+      if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+        pinned |= blockers;
+      }
+    }
+    return pinned;
+  }
+
+  private static void generateLegalPawnMoves(BitBoard board, Color color, int kingSquare, long checkMask,
+                                             long pinned, int kind, MoveList moves) {
+    long pawns = board.getPieces(color, ChessPieceType.PAWN);
+    long occupancy = board.getOccupancy();
+    long enemies = board.getOccupancy(color == Color.WHITE ? Color.BLACK : Color.WHITE);
+    int forward = (color == Color.WHITE) ? -8 : 8;
+    int startingRow = (color == Color.WHITE) ? 6 : 1;
+    int enPassantSquare = board.getEnPassantSquare();
+
+    while (pawns != 0) {
+      int source = Long.numberOfTrailingZeros(pawns);
+      pawns &= pawns - 1;
+      long allowed = checkMask;
+      if ((pinned & BitBoard.bit(source)) != 0) {
+        allowed &= LINE[kingSquare][source];
+      }
+
+      int destination = source + forward;
+      boolean promotion = BitBoard.row(destination) == 0 || BitBoard.row(destination) == 7;
+      boolean pushes = kind == ALL_MOVES || kind == QUIET_MOVES
+              || (kind == CAPTURES_AND_PROMOTIONS && promotion);
+      if (pushes && (occupancy & BitBoard.bit(destination)) == 0) {
+        if ((allowed & BitBoard.bit(destination)) != 0) {
+          addPawnMove(board, source, destination, moves);
+        }
+        int longDestination = destination + forward;
+        if (BitBoard.row(source) == startingRow
+                && (occupancy & BitBoard.bit(longDestination)) == 0
+                && (allowed & BitBoard.bit(longDestination)) != 0) {
+          moves.add(PackedMove.of(source, longDestination, PackedMove.PAWN_LONG, ChessPieceType.PAWN, null));
+        }
+      }
+
+      if (kind == QUIET_MOVES) {
+        continue;
+      }
+
+      long attacks = LeapingPieceAttacks.pawnAttacks(color, source);
+      long captures = attacks & enemies & allowed;
+      while (captures != 0) {
+        int target = Long.numberOfTrailingZeros(captures);
+        captures &= captures - 1;
+        addPawnMove(board, source, target, moves);
+      }
+
+      if (enPassantSquare != BitBoard.NO_SQUARE && (attacks & BitBoard.bit(enPassantSquare)) != 0
+              && isLegalEnPassant(board, color, source, enPassantSquare)) {
+        moves.add(PackedMove.of(source, enPassantSquare, PackedMove.EN_PASSANT,
+                ChessPieceType.PAWN, ChessPieceType.PAWN));
+      }
+    }
+  }
+
+  // Fills moves with the pseudo-legal moves of color and returns how many they are
+  public static int generatePseudoLegalMoves(BitBoard board, Color color, MoveList moves) {
+    moves.clear();
+    generatePawnMoves(board, color, moves);
+
+    long own = board.getOccupancy(color);
+    long occupancy = board.getOccupancy();
+
+    long knights = board.getPieces(color, ChessPieceType.KNIGHT);
+    while (knights != 0) {
+      int source = Long.numberOfTrailingZeros(knights);
+      knights &= knights - 1;
+      addMoves(board, source, LeapingPieceAttacks.knightAttacks(source) & ~own, moves);
+    }
+
+    long bishops = board.getPieces(color, ChessPieceType.BISHOP);
+    while (bishops != 0) {
+      int source = Long.numberOfTrailingZeros(bishops);
+      bishops &= bishops - 1;
+      addMoves(board, source, SlidingPieceAttacks.bishopAttacks(source, occupancy) & ~own, moves);
+    }
+
+    long rooks = board.getPieces(color, ChessPieceType.ROOK);
+    while (rooks != 0) {
+      int source = Long.numberOfTrailingZeros(rooks);
+      rooks &= rooks - 1;
+      addMoves(board, source, SlidingPieceAttacks.rookAttacks(source, occupancy) & ~own, moves);
+    }
+
+    long queens = board.getPieces(color, ChessPieceType.QUEEN);
+    while (queens != 0) {
+      int source = Long.numberOfTrailingZeros(queens);
+      queens &= queens - 1;
+      addMoves(board, source, SlidingPieceAttacks.queenAttacks(source, occupancy) & ~own, moves);
+    }
+
+    int kingSquare = board.getKingSquare(color);
+    if (kingSquare != BitBoard.NO_SQUARE) {
+      addMoves(board, kingSquare, LeapingPieceAttacks.kingAttacks(kingSquare) & ~own, moves);
+      generateCastlingMoves(board, color, moves);
+    }
+    return moves.size();
+  }
+
+  private static void generatePawnMoves(BitBoard board, Color color, MoveList moves) {
+    long pawns = board.getPieces(color, ChessPieceType.PAWN);
+    long empty = ~board.getOccupancy();
+    long enemies = board.getOccupancy(color == Color.WHITE ? Color.BLACK : Color.WHITE);
+
+    // White pawns move towards row 0 (lower tile numbers), Black pawns towards row 7
+    int forward;
+    long singlePushes;
+    long doublePushes;
+    if (color == Color.WHITE) {
+      forward = -8;
+      singlePushes = (pawns >>> 8) & empty;
+      doublePushes = ((singlePushes & RANK_3) >>> 8) & empty;
+    } else {
+      forward = 8;
+      singlePushes = (pawns << 8) & empty;
+      doublePushes = ((singlePushes & RANK_6) << 8) & empty;
+    }
+
+    while (singlePushes != 0) {
+      int destination = Long.numberOfTrailingZeros(singlePushes);
+      singlePushes &= singlePushes - 1;
+      addPawnMove(board, destination - forward, destination, moves);
+    }
+
+    while (doublePushes != 0) {
+      int destination = Long.numberOfTrailingZeros(doublePushes);
+      doublePushes &= doublePushes - 1;
+      moves.add(PackedMove.of(destination - 2 * forward, destination, PackedMove.PAWN_LONG,
+              ChessPieceType.PAWN, null));
+    }
+
+    // The en passant square only belongs to the player who has to move
+    int enPassantSquare = (color == board.getCurrentPlayerColor())
+            ? board.getEnPassantSquare()
+            : BitBoard.NO_SQUARE;
+
+    while (pawns != 0) {
+      int source = Long.numberOfTrailingZeros(pawns);
+      pawns &= pawns - 1;
+      long attacks = LeapingPieceAttacks.pawnAttacks(color, source);
+      long captures = attacks & enemies;
+      while (captures != 0) {
+        int destination = Long.numberOfTrailingZeros(captures);
+        captures &= captures - 1;
+        addPawnMove(board, source, destination, moves);
+      }
+      if (enPassantSquare != BitBoard.NO_SQUARE && (attacks & BitBoard.bit(enPassantSquare)) != 0) {
+        moves.add(PackedMove.of(source, enPassantSquare, PackedMove.EN_PASSANT,
+                ChessPieceType.PAWN, ChessPieceType.PAWN));
+      }
+    }
+  }
+
+  // En passant removes two pawns from the same row, and can uncover an attack on the
+  // King that no pin mask sees: the attackers of the King are looked for on the
+  // occupancy after the capture. The board is only read, never played on, so that
+  // boards shared by several threads can generate their moves at the same time.
+  private static boolean isLegalEnPassant(BitBoard board, Color color, int source, int destination) {
+    long capturedPawn = BitBoard.bit(destination + (color == Color.WHITE ? 8 : -8));
+    long occupancy = (board.getOccupancy() ^ BitBoard.bit(source) ^ capturedPawn) | BitBoard.bit(destination);
+    Color opponent = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    return (board.getAttackers(board.getKingSquare(color), opponent, occupancy) & ~capturedPawn) == 0;
+  }
+
+  private static void addPawnMove(BitBoard board, int source, int destination, MoveList moves) {
+    ChessPieceType captured = board.getPieceType(destination);
+    int row = BitBoard.row(destination);
+    if (row == 0 || row == 7) {
+      for (ChessPieceType type : PROMOTION_TYPES) {
+        moves.add(PackedMove.promotion(source, destination, captured, type));
+      }
+    } else {
+      moves.add(PackedMove.of(source, destination, PackedMove.NORMAL, ChessPieceType.PAWN, captured));
+    }
+  }
+
+  private static void addMoves(BitBoard board, int source, long targets, MoveList moves) {
+    ChessPieceType moved = board.getPieceType(source);
+    while (targets != 0) {
+      int destination = Long.numberOfTrailingZeros(targets);
+      targets &= targets - 1;
+      moves.add(PackedMove.of(source, destination, PackedMove.NORMAL, moved, board.getPieceType(destination)));
+    }
+  }
+
+  private static void generateCastlingMoves(BitBoard board, Color color, MoveList moves) {
+    int king = (color == Color.WHITE) ? Position.E1.getValue() : Position.E8.getValue();
+    if (canCastle(board, color, true)) {
+      moves.add(PackedMove.of(king, king + 2, PackedMove.CASTLING, ChessPieceType.KING, null));
+    }
+    if (canCastle(board, color, false)) {
+      moves.add(PackedMove.of(king, king - 2, PackedMove.CASTLING, ChessPieceType.KING, null));
+    }
+  }
+
+  // The King and the Rook must have never moved, the tiles between them must be
+  // empty and the King can't be in check, nor cross or reach an attacked tile
+  public static boolean canCastle(BitBoard board, Color color, boolean kingSide) {
+    int right;
+    if (color == Color.WHITE) {
+      right = kingSide ? BitBoard.WHITE_KING_SIDE : BitBoard.WHITE_QUEEN_SIDE;
+    } else {
+      right = kingSide ? BitBoard.BLACK_KING_SIDE : BitBoard.BLACK_QUEEN_SIDE;
+    }
+    if ((board.getCastlingRights() & right) == 0) {
+      return false;
+    }
+
+    int king = (color == Color.WHITE) ? Position.E1.getValue() : Position.E8.getValue();
+    long between = kingSide
+            ? BitBoard.bit(king + 1) | BitBoard.bit(king + 2)
+            : BitBoard.bit(king - 1) | BitBoard.bit(king - 2) | BitBoard.bit(king - 3);
+    if ((board.getOccupancy() & between) != 0) {
+      return false;
+    }
+
+    Color opponent = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    int step = kingSide ? 1 : -1;
+    return !board.isSquareAttacked(king, opponent)
+            && !board.isSquareAttacked(king + step, opponent)
+            && !board.isSquareAttacked(king + 2 * step, opponent);
+  }
+
+  // Number of pseudo-legal moves of color (the "mobility" used by the evaluators),
+  // counted on the attack sets without generating the moves
+  public static int countPseudoLegalMoves(BitBoard board, Color color) {
+    long own = board.getOccupancy(color);
+    long occupancy = board.getOccupancy();
+    long enemies = board.getOccupancy(color == Color.WHITE ? Color.BLACK : Color.WHITE);
+
+    long pawns = board.getPieces(color, ChessPieceType.PAWN);
+    long singlePushes;
+    long doublePushes;
+    long promotionRank;
+    if (color == Color.WHITE) {
+      singlePushes = (pawns >>> 8) & ~occupancy;
+      doublePushes = ((singlePushes & RANK_3) >>> 8) & ~occupancy;
+      promotionRank = BitBoard.RANK_8;
+    } else {
+      singlePushes = (pawns << 8) & ~occupancy;
+      doublePushes = ((singlePushes & RANK_6) << 8) & ~occupancy;
+      promotionRank = BitBoard.RANK_1;
+    }
+
+    // Each promotion counts as 4 moves (Queen, Rook, Bishop, Knight)
+    int count = Long.bitCount(singlePushes & ~promotionRank)
+            + 4 * Long.bitCount(singlePushes & promotionRank)
+            + Long.bitCount(doublePushes);
+
+    int enPassantSquare = (color == board.getCurrentPlayerColor())
+            ? board.getEnPassantSquare()
+            : BitBoard.NO_SQUARE;
+    while (pawns != 0) {
+      int source = Long.numberOfTrailingZeros(pawns);
+      pawns &= pawns - 1;
+      long attacks = LeapingPieceAttacks.pawnAttacks(color, source);
+      long captures = attacks & enemies;
+      count += Long.bitCount(captures & ~promotionRank) + 4 * Long.bitCount(captures & promotionRank);
+      if (enPassantSquare != BitBoard.NO_SQUARE && (attacks & BitBoard.bit(enPassantSquare)) != 0) {
+        count++;
+      }
+    }
+
+    long knights = board.getPieces(color, ChessPieceType.KNIGHT);
+    while (knights != 0) {
+      int source = Long.numberOfTrailingZeros(knights);
+      knights &= knights - 1;
+      count += Long.bitCount(LeapingPieceAttacks.knightAttacks(source) & ~own);
+    }
+
+    long diagonals = board.getPieces(color, ChessPieceType.BISHOP) | board.getPieces(color, ChessPieceType.QUEEN);
+    while (diagonals != 0) {
+      int source = Long.numberOfTrailingZeros(diagonals);
+      diagonals &= diagonals - 1;
+      count += Long.bitCount(SlidingPieceAttacks.bishopAttacks(source, occupancy) & ~own);
+    }
+
+    long lines = board.getPieces(color, ChessPieceType.ROOK) | board.getPieces(color, ChessPieceType.QUEEN);
+    while (lines != 0) {
+      int source = Long.numberOfTrailingZeros(lines);
+      lines &= lines - 1;
+      count += Long.bitCount(SlidingPieceAttacks.rookAttacks(source, occupancy) & ~own);
+    }
+
+    int kingSquare = board.getKingSquare(color);
+    if (kingSquare != BitBoard.NO_SQUARE) {
+      count += Long.bitCount(LeapingPieceAttacks.kingAttacks(kingSquare) & ~own);
+      if (canCastle(board, color, true)) {
+        count++;
+      }
+      if (canCastle(board, color, false)) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  // True if a move found in another position (a hash or killer move) is legal
+  // in this one: it is much cheaper than generating all the moves to look for it
+  public static boolean isPlayable(BitBoard board, int move) {
+    if (move == PackedMove.NONE) {
+      return false;
+    }
+    Color color = board.getCurrentPlayerColor();
+    int source = PackedMove.getSource(move);
+    int destination = PackedMove.getDestination(move);
+    int flag = PackedMove.getFlag(move);
+    ChessPieceType moved = PackedMove.getMovedType(move);
+    if (board.getPieceType(source) != moved || board.getPieceColor(source) != color) {
+      return false;
+    }
+
+    if (flag == PackedMove.EN_PASSANT) {
+      return destination == board.getEnPassantSquare()
+              && (LeapingPieceAttacks.pawnAttacks(color, source) & BitBoard.bit(destination)) != 0
+              && isLegal(board, move);
+    }
+    ChessPieceType captured = PackedMove.getCapturedType(move);
+    if (board.getPieceType(destination) != captured
+            || (captured != null && board.getPieceColor(destination) == color)) {
+      return false;
+    }
+
+    if (flag == PackedMove.CASTLING) {
+      return canCastle(board, color, destination > source);
+    }
+    if (moved == ChessPieceType.PAWN) {
+      int forward = (color == Color.WHITE) ? -8 : 8;
+      if (flag == PackedMove.PAWN_LONG) {
+        int startingRow = (color == Color.WHITE) ? 6 : 1;
+        if (BitBoard.row(source) != startingRow || destination != source + 2 * forward
+                || board.getPieceType(source + forward) != null) {
+          return false;
+        }
+      } else if (captured == null ? destination != source + forward
+              : (LeapingPieceAttacks.pawnAttacks(color, source) & BitBoard.bit(destination)) == 0) {
+        return false;
+      }
+    } else if ((board.getAttacks(source) & BitBoard.bit(destination)) == 0) {
+      return false;
+    }
+    return isLegal(board, move);
+  }
+
+  // Plays the (pseudo-legal) move and checks that the moving player's King is safe
+  public static boolean isLegal(BitBoard board, int move) {
+    Color mover = board.getCurrentPlayerColor();
+    board.makeMove(move);
+    boolean legal = !board.isKingInCheck(mover);
+    board.unmakeMove();
+    return legal;
+  }
+
+  // True if the player to move has a legal move: the rules of generateLegalMoves(),
+  // but no list is filled and it stops at the first move found (the evaluators
+  // ask it in every position where the King is in check). Castling is not looked
+  // at: when it is legal, so is the King step towards the Rook.
+  public static boolean hasLegalMove(BitBoard board) {
+    Color color = board.getCurrentPlayerColor();
+    int kingSquare = board.getKingSquare(color);
+    if (getSafeKingTargets(board, color, kingSquare) != 0) {
+      return true;
+    }
+
+    long checkers = board.getAttackers(kingSquare, board.getOpponentPlayerColor(), board.getOccupancy());
+    if (Long.bitCount(checkers) > 1) {
+      return false;
+    }
+    long checkMask = getCheckMask(kingSquare, checkers);
+    long pinned = getPinnedPieces(board, color, kingSquare);
+
+    long pieces = board.getOccupancy(color) & ~BitBoard.bit(kingSquare);
+    while (pieces != 0) {
+      int source = Long.numberOfTrailingZeros(pieces);
+      pieces &= pieces - 1;
+      long allowed = checkMask;
+      if ((pinned & BitBoard.bit(source)) != 0) {
+        allowed &= LINE[kingSquare][source];
+      }
+      if (hasPieceMove(board, color, source, allowed)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  // True if the piece on source (not the King) can move to one of the allowed tiles
+  private static boolean hasPieceMove(BitBoard board, Color color, int source, long allowed) {
+    long own = board.getOccupancy(color);
+    if (board.getPieceType(source) != ChessPieceType.PAWN) {
+      return (board.getAttacks(source) & ~own & allowed) != 0;
+    }
+
+    long occupancy = board.getOccupancy();
+    int forward = (color == Color.WHITE) ? -8 : 8;
+    int startingRow = (color == Color.WHITE) ? 6 : 1;
+    int destination = source + forward;
+    if ((occupancy & BitBoard.bit(destination)) == 0) {
+      if ((allowed & BitBoard.bit(destination)) != 0) {
+        return true;
+      }
+      int longDestination = destination + forward;
+      if (BitBoard.row(source) == startingRow
+              && (occupancy & BitBoard.bit(longDestination)) == 0
+              && (allowed & BitBoard.bit(longDestination)) != 0) {
+        return true;
+      }
+    }
+
+    long attacks = LeapingPieceAttacks.pawnAttacks(color, source);
+    if ((attacks & (occupancy & ~own) & allowed) != 0) {
+      return true;
+    }
+    int enPassantSquare = board.getEnPassantSquare();
+    return enPassantSquare != BitBoard.NO_SQUARE && (attacks & BitBoard.bit(enPassantSquare)) != 0
+            && isLegalEnPassant(board, color, source, enPassantSquare);
+  }
+}
@@ -0,0 +1,91 @@
+package it.unisa.rookie.board;
+
+// A reusable list of PackedMove values, with an ordering score for each move.
+//
+// The search keeps one list for each ply and clears it instead of allocating
+// new ArrayList<Move> objects at every node.
+public class MoveList {
+  private final int[] moves;
+  private final int[] scores;
+  private int size;
+
+  public MoveList() {
+    this.moves = new int[MoveGenerator.MAX_MOVES];
+    this.scores = new int[MoveGenerator.MAX_MOVES];
+    this.size = 0;
+  }
+
+  public void add(int move) {
+    this.moves[this.size++] = move;
+  }
+
+  public int get(int index) {
+    return this.moves[index];
+  }
+
+  public int size() {
+    return this.size;
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  public void clear() {
+    this.size = 0;
+  }
+
+  public boolean contains(int move) {
+    for (int i = 0; i < this.size; i++) {
+      if (this.moves[i] == move) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public int getScore(int index) {
+    return this.scores[index];
+  }
+
+  // Overwrites the move at index (and its score)
+  public void set(int index, int move, int score) {
+    this.moves[index] = move;
+    this.scores[index] = score;
+  }
+
+  // Keeps only the first size moves
+  public void truncate(int size) {
+    this.size = size;
+  }
+
+  public void setScore(int index, int score) {
+    this.scores[index] = score;
+  }
+
+  // Stable insertion sort by score, in descending order: move lists are short
+  // and often almost sorted already
+  public void sortByScore() {
+    for (int i = 1; i < this.size; i++) {
+      int move = this.moves[i];
+      int score = this.scores[i];
+      int j = i - 1;
+      while (j >= 0 && this.scores[j] < score) {
+        this.moves[j + 1] = this.moves[j];
+        this.scores[j + 1] = this.scores[j];
+        j--;
+      }
+      this.moves[j + 1] = move;
+      this.scores[j + 1] = score;
+    }
+  }
+
+  public void swap(int i, int j) {
+    int move = this.moves[i];
+    this.moves[i] = this.moves[j];
+    this.moves[j] = move;
+    int score = this.scores[i];
+    this.scores[i] = this.scores[j];
+    this.scores[j] = score;
+  }
+}
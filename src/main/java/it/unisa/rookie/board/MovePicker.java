@@ -0,0 +1,219 @@
+package it.unisa.rookie.board;
+
+import it.unisa.rookie.piece.ChessPieceType;
+import it.unisa.rookie.piece.Color;
+
+// Returns the legal moves of a position one at a time, in stages: the hash move,
+// the winning and equal captures (by static exchange evaluation, then Most
+// Valuable Victim - Least Valuable Aggressor first), the killer moves, the
+// countermove, the quiet moves (by their history score, when the picker has a
+// HistoryTable) and last the losing captures.
+//
+// Most cutoffs happen on one of the first moves, so the quiet moves are only
+// generated when the earlier stages didn't produce one.
+// The search keeps one MovePicker for each ply and calls init() at every node.
+public class MovePicker {
+  private static final int HASH_MOVE = 0;
+  private static final int GENERATE_CAPTURES = 1;
+  private static final int CAPTURES = 2;
+  private static final int FIRST_KILLER = 3;
+  private static final int SECOND_KILLER = 4;
+  private static final int COUNTERMOVE = 5;
+  private static final int GENERATE_QUIET_MOVES = 6;
+  private static final int QUIET_MOVES = 7;
+  private static final int LOSING_CAPTURES = 8;
+  private static final int DONE = 9;
+
+  // Winning captures come before the equal ones, whatever their MVV-LVA score
+  private static final int WINNING_CAPTURE_BONUS = 1000;
+
+  private static final int[][] MVV_LVA = {
+        //  Aggressors
+        //  P   N   B   R   Q   K    // Victims
+          { 6,  5,  4,  3,  2,  1},  // P
+          {12, 11, 10,  9,  8,  7},  // N
+          {18, 17, 16, 15, 14, 13},  // B
+          {24, 23, 22, 21, 20, 19},  // R
+          {30, 29, 28, 27, 26, 25},  // Q
+          { 0,  0,  0,  0,  0,  0},  // K
+  };
+
+  private final MoveList captures;
+  private final MoveList losingCaptures;
+  private final MoveList quietMoves;
+  private final HistoryTable history;
+  private BitBoard board;
+  private int hashMove;
+  private int firstKiller;
+  private int secondKiller;
+  private int countermove;
+  private int stage;
+  private int index;
+
+  // Quiet moves in the order of the move generator
+  public MovePicker() {
+    this(null);
+  }
+
+  // Quiet moves by their score in the history table (which can be shared by
+  // the pickers of every ply)
+  public MovePicker(HistoryTable history) {
+    this.captures = new MoveList();
+    this.losingCaptures = new MoveList();
+    this.quietMoves = new MoveList();
+    this.history = history;
+  }
+
+  public void init(BitBoard board, int hashMove, int firstKiller, int secondKiller) {
+    init(board, hashMove, firstKiller, secondKiller, PackedMove.NONE);
+  }
+
+  // hashMove, the killers and the countermove can be PackedMove.NONE, or moves
+  // that are not legal in this position (they are checked before being returned)
+  public void init(BitBoard board, int hashMove, int firstKiller, int secondKiller, int countermove) {
+    this.board = board;
+    this.hashMove = hashMove;
+    this.firstKiller = firstKiller;
+    this.secondKiller = secondKiller;
+    this.countermove = countermove;
+    this.stage = HASH_MOVE;
+  }
+
+  // True if the last move returned by next() is one of the quiet moves generated
+  // after the killers and the countermove: the moves the ordering expects the
+  // least from
+  public boolean isLateQuietMove() {
+    return stage == QUIET_MOVES;
+  }
+
+  // The next move to search, or PackedMove.NONE when there are no more moves
+  public int next() {
+    while (true) {
+      switch (stage) {
+        case HASH_MOVE:
+          stage = GENERATE_CAPTURES;
+          if (MoveGenerator.isPlayable(board, hashMove)) {
+            return hashMove;
+          }
+          hashMove = PackedMove.NONE;
+          break;
+
+        case GENERATE_CAPTURES:
+          MoveGenerator.generateLegalMoves(board, captures, MoveGenerator.CAPTURES);
+          // The losing captures are set aside for the last stage
+          losingCaptures.clear();
+          int kept = 0;
+          for (int i = 0; i < captures.size(); i++) {
+            int move = captures.get(i);
+            int exchange = board.staticExchangeEvaluation(move);
+            if (exchange < 0) {
+              losingCaptures.add(move);
+              losingCaptures.setScore(losingCaptures.size() - 1, mvvlva(move));
+            } else {
+              captures.set(kept++, move, mvvlva(move)
+                      + (exchange > 0 ? WINNING_CAPTURE_BONUS : 0));
+            }
+          }
+          captures.truncate(kept);
+          captures.sortByScore();
+          losingCaptures.sortByScore();
+          index = 0;
+          stage = CAPTURES;
+          break;
+
+        case CAPTURES:
+          while (index < captures.size()) {
+            int move = captures.get(index++);
+            if (move != hashMove) {
+              return move;
+            }
+          }
+          stage = FIRST_KILLER;
+          break;
+
+        case FIRST_KILLER:
+          stage = SECOND_KILLER;
+          if (isPlayableKiller(firstKiller)) {
+            return firstKiller;
+          }
+          firstKiller = PackedMove.NONE;
+          break;
+
+        case SECOND_KILLER:
+          stage = COUNTERMOVE;
+          if (secondKiller != firstKiller && isPlayableKiller(secondKiller)) {
+            return secondKiller;
+          }
+          secondKiller = PackedMove.NONE;
+          break;
+
+        case COUNTERMOVE:
+          stage = GENERATE_QUIET_MOVES;
+          if (countermove != firstKiller && countermove != secondKiller
+                  && isPlayableKiller(countermove)) {
+            return countermove;
+          }
+          countermove = PackedMove.NONE;
+          break;
+
+        case GENERATE_QUIET_MOVES:
+          MoveGenerator.generateLegalMoves(board, quietMoves, MoveGenerator.QUIET_MOVES);
+          if (history != null) {
+            Color color = board.getCurrentPlayerColor();
+            for (int i = 0; i < quietMoves.size(); i++) {
+              int move = quietMoves.get(i);
+              // (promotions without a capture still come first)
+              quietMoves.setScore(i, PackedMove.isPromotion(move)
+                      ? Integer.MAX_VALUE
+                      : history.getScore(color, move));
+            }
+            quietMoves.sortByScore();
+          }
+          index = 0;
+          stage = QUIET_MOVES;
+          break;
+
+        case QUIET_MOVES:
+          while (index < quietMoves.size()) {
+            int move = quietMoves.get(index++);
+            if (move != hashMove && move != firstKiller && move != secondKiller
+                    && move != countermove) {
+              return move;
+            }
+          }
+          index = 0;
+          stage = LOSING_CAPTURES;
+          break;
+
+        case LOSING_CAPTURES:
+          while (index < losingCaptures.size()) {
+            int move = losingCaptures.get(index++);
+            if (move != hashMove) {
+              return move;
+            }
+          }
+          stage = DONE;
+          break;
+
+        default:
+          return PackedMove.NONE;
+      }
+    }
+  }
+
+  // Most Valuable Victim - Least Valuable Aggressor heuristic (0 for a move that
+  // doesn't capture)
+  public static int mvvlva(int move) {
+    ChessPieceType victim = PackedMove.getCapturedType(move);
+    if (victim != null) {
+      return MVV_LVA[victim.getId()][PackedMove.getMovedType(move).getId()];
+    }
+    return 0;
+  }
+
+  // Killers (and countermoves) are quiet moves: captures are already searched in
+  // their own stage
+  private boolean isPlayableKiller(int killer) {
+    return killer != hashMove && !PackedMove.isCapture(killer) && MoveGenerator.isPlayable(board, killer);
+  }
+}
@@ -0,0 +1,147 @@
+package it.unisa.rookie.board;
+
+import it.unisa.rookie.piece.Bishop;
+import it.unisa.rookie.piece.ChessPieceType;
+import it.unisa.rookie.piece.Knight;
+import it.unisa.rookie.piece.Piece;
+import it.unisa.rookie.piece.Position;
+import it.unisa.rookie.piece.Queen;
+import it.unisa.rookie.piece.Rook;
+
+// Moves used by the BitBoard search, packed in a single int:
+//
+//  bits  0-5   source tile
+//  bits  6-11  destination tile
+//  bits 12-14  flag (NORMAL, PAWN_LONG, EN_PASSANT, CASTLING, PROMOTION)
+//  bits 15-17  promotion piece type id (PROMOTION only)
+//  bits 18-20  moved piece type id
+//  bits 21-23  captured piece type id + 1 (0 if nothing is captured)
+//
+// A move is a plain int: it can be stored in arrays (MoveList, killer tables,
+// hash tables) without keeping any Board or Piece alive, and it tells what it
+// moves and captures without looking at the board.
+// A real move never has source == destination, so 0 means "no move".
+public final class PackedMove {
+  public static final int NONE = 0;
+
+  public static final int NORMAL = 0;
+  public static final int PAWN_LONG = 1;
+  public static final int EN_PASSANT = 2;
+  public static final int CASTLING = 3;
+  public static final int PROMOTION = 4;
+
+  private static final ChessPieceType[] PIECE_TYPES = ChessPieceType.values();
+
+  private PackedMove() {
+  }
+
+  // captured is null if the move doesn't capture anything
+  public static int of(int source, int destination, int flag,
+                       ChessPieceType moved, ChessPieceType captured) {
+    return source
+            | (destination << 6)
+            | (flag << 12)
+            | (moved.getId() << 18)
+            | ((captured == null ? 0 : captured.getId() + 1) << 21);
+  }
+
+  public static int promotion(int source, int destination,
+                              ChessPieceType captured, ChessPieceType promotionType) {
+    return of(source, destination, PROMOTION, ChessPieceType.PAWN, captured) | (promotionType.getId() << 15);
+  }
+
+  public static int getSource(int move) {
+    return move & 0x3F;
+  }
+
+  public static int getDestination(int move) {
+    return (move >>> 6) & 0x3F;
+  }
+
+  public static int getFlag(int move) {
+    return (move >>> 12) & 0x7;
+  }
+
+  public static ChessPieceType getPromotionType(int move) {
+    return PIECE_TYPES[(move >>> 15) & 0x7];
+  }
+
+  public static ChessPieceType getMovedType(int move) {
+    return PIECE_TYPES[(move >>> 18) & 0x7];
+  }
+
+  // null if the move doesn't capture anything
+  public static ChessPieceType getCapturedType(int move) {
+    int captured = (move >>> 21) & 0x7;
+    return captured == 0 ? null : PIECE_TYPES[captured - 1];
+  }
+
+  public static boolean isCapture(int move) {
+    return ((move >>> 21) & 0x7) != 0;
+  }
+
+  public static boolean isPromotion(int move) {
+    return getFlag(move) == PROMOTION;
+  }
+
+  public static boolean isCastling(int move) {
+    return getFlag(move) == CASTLING;
+  }
+
+  // Rebuilds the Move object (and its subclass) that does the same thing on board.
+  // board must be the Board the packed move has been generated for.
+  public static Move toMove(Board board, int move) {
+    Position source = Position.fromValue(getSource(move));
+    Position destination = Position.fromValue(getDestination(move));
+    Piece movedPiece = board.getPiece(source.getValue());
+
+    switch (getFlag(move)) {
+      case PAWN_LONG:
+        return new PawnLongMove(board, source, destination, movedPiece, movedPiece);
+      case EN_PASSANT:
+        return new EnPassantCaptureMove(board, source, destination, movedPiece, board.getEnPassant());
+      case CASTLING: {
+        boolean kingSide = destination.getValue() > source.getValue();
+        Position castleSource = Position.fromValue(source.getValue() + (kingSide ? 3 : -4));
+        Position castleDestination = Position.fromValue(source.getValue() + (kingSide ? 1 : -1));
+        return new CastlingMove(board, source, destination, movedPiece,
+                castleSource, castleDestination, board.getPiece(castleSource.getValue()));
+      }
+      case PROMOTION: {
+        Piece promotionPiece;
+        switch (getPromotionType(move)) {
+          case ROOK:
+            promotionPiece = new Rook(movedPiece.getColor(), destination, false);
+            break;
+          case BISHOP:
+            promotionPiece = new Bishop(movedPiece.getColor(), destination, false);
+            break;
+          case KNIGHT:
+            promotionPiece = new Knight(movedPiece.getColor(), destination, false);
+            break;
+          default:
+            promotionPiece = new Queen(movedPiece.getColor(), destination, false);
+        }
+        return new PawnPromotionMove(board, source, destination, movedPiece, promotionPiece);
+      }
+      default:
+        return new Move(board, source, destination, movedPiece);
+    }
+  }
+
+  public static String toString(int move) {
+    if (move == NONE) {
+      return "none";
+    }
+    String result = Position.fromValue(getSource(move))
+            + " to " + Position.fromValue(getDestination(move));
+    if (isPromotion(move)) {
+      result += " - Promotion to " + getPromotionType(move);
+    } else if (isCastling(move)) {
+      result += " - Castling";
+    } else if (getFlag(move) == EN_PASSANT) {
+      result += " - En Passant Capture";
+    }
+    return result;
+  }
+}
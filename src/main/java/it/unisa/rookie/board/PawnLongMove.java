@@ -62,10 +62,12 @@ public class PawnLongMove extends Move {
     cloneEnPassant.setPosition(getDestination());
     newBoardPositions[getDestination().getValue()] = cloneEnPassant;
 
+    long zobristKey = getPartialZobristKey() ^ Zobrist.piece(cloneEnPassant, getDestination().getValue());
+
     // Choose the next player
     Color next = (currentPlayerColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
 
-    return new Board(newBoardPositions, this, next, cloneEnPassant, whiteScore, blackScore);
+    return new Board(newBoardPositions, this, next, cloneEnPassant, whiteScore, blackScore, zobristKey);
   }
 
   /*
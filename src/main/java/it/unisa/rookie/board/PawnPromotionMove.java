@@ -68,6 +68,11 @@ public class PawnPromotionMove extends Move {
     // Add the moved piece
     newBoardPositions[getDestination().getValue()] = this.promotionPiece;
 
+    long zobristKey = getPartialZobristKey() ^ Zobrist.piece(this.promotionPiece, getDestination().getValue());
+    if (attacked != null) {
+      zobristKey ^= Zobrist.piece(attacked, getDestination().getValue());
+    }
+
     // Update piece count for current player
     // Lose a pawn -> - pawn value
     // Get a new piece -> + value of the chosen promotion piece
@@ -82,7 +87,7 @@ public class PawnPromotionMove extends Move {
     // Choose the next player
     Color next = (currentPlayerColor == Color.WHITE) ? Color.BLACK : Color.WHITE;
 
-    return new Board(newBoardPositions, this, next, null, whiteScore, blackScore);
+    return new Board(newBoardPositions, this, next, null, whiteScore, blackScore, zobristKey);
   }
 
   /*
@@ -7,24 +7,22 @@ import java.util.ArrayList;
 public class Player {
   private Board playingBoard;
   private Color playerColor;
-  private ArrayList<Move> legalMoves;
-  private ArrayList<Move> kingThreats;
+  // Move lists are generated on first access: most boards created by a search
+  // are evaluated, or cut off, before anybody looks at them.
+  // They are volatile because threads sharing a Board (e.g. parallel perft) can
+  // generate them at the same time: each thread builds the same list, and only
+  // publishes it once it is complete.
+  private volatile ArrayList<Move> pieceMoves;
+  private volatile ArrayList<Move> legalMoves;
+  private volatile ArrayList<Move> kingThreats;
   private int materialCount;
 
-  private boolean isKingInCheck;
-
   public Player(Board playingBoard,
                 Color playerColor,
-                ArrayList<Move> legalMoves,
-                ArrayList<Move> kingThreats,
                 int materialCount) {
     this.playingBoard = playingBoard;
     this.playerColor = playerColor;
-    this.legalMoves = legalMoves;
-    this.kingThreats = kingThreats;
     this.materialCount = materialCount;
-
-    this.isKingInCheck = !(this.kingThreats.isEmpty());
   }
 
   public Board getPlayingBoard() {
@@ -43,16 +41,48 @@ public class Player {
     this.playerColor = playerColor;
   }
 
+  // The player who has to move gets strictly legal moves; the opponent gets
+  // the moves of his pieces, that are what threatens the current player
   public ArrayList<Move> getLegalMoves() {
+    if (this.legalMoves == null) {
+      if (playingBoard.getCurrentPlayer() == this) {
+        this.legalMoves = playingBoard.getCurrentPlayerLegalMoves();
+      } else {
+        ArrayList<Move> moves = new ArrayList<>(getPieceMoves());
+        moves.addAll(playingBoard.getCastlingMoves(playerColor));
+        this.legalMoves = moves;
+      }
+    }
     return legalMoves;
   }
 
+  // Legal moves without castling: the ones that can threaten the opponent tiles
+  public ArrayList<Move> getPieceMoves() {
+    if (this.pieceMoves == null) {
+      this.pieceMoves = playingBoard.getPieceMoves(playerColor);
+    }
+    return pieceMoves;
+  }
+
   public void setLegalMoves(ArrayList<Move> legalMoves) {
     this.legalMoves = legalMoves;
   }
 
   public ArrayList<Move> getKingThreats() {
-    return kingThreats;
+    ArrayList<Move> threats = this.kingThreats;
+    if (threats == null) {
+      // Only a King in check has threats worth looking for in the opponent moves
+      if (!isKingInCheck()) {
+        threats = new ArrayList<>();
+      } else {
+        threats = playingBoard.getThreats(
+                playingBoard.getBitBoard().getKingSquare(playerColor),
+                getOpponentPlayer().getPieceMoves()
+        );
+      }
+      this.kingThreats = threats;
+    }
+    return threats;
   }
 
   public void setKingThreats(ArrayList<Move> kingThreats) {
@@ -67,8 +97,9 @@ public class Player {
     this.materialCount = materialCount;
   }
 
+  // Looks at the attacks on the King tile, without generating the opponent moves
   public boolean isKingInCheck() {
-    return this.isKingInCheck;
+    return playingBoard.getBitBoard().isKingInCheck(playerColor);
   }
 
   public Player getOpponentPlayer() {
@@ -0,0 +1,83 @@
+package it.unisa.rookie.board;
+
+import it.unisa.rookie.piece.ChessPieceType;
+import it.unisa.rookie.piece.Color;
+import it.unisa.rookie.piece.Piece;
+import java.util.Random;
+
+// Zobrist hashing: a random 64 bit number for each (piece, tile) pair, castling
+// rights combination, en passant column and for the side to move.
+//
+// The key of a position is the XOR of the numbers of everything it contains, so
+// a move only has to XOR out what it removes and XOR in what it adds.
+// See: https://www.chessprogramming.org/Zobrist_Hashing
+public final class Zobrist {
+  // Indexed by BitBoard.pieceIndex() and tile
+  private static final long[][] PIECE_SQUARE = new long[12][64];
+  // Indexed by the BitBoard castling rights bits
+  private static final long[] CASTLING = new long[16];
+  private static final long[] EN_PASSANT_COLUMN = new long[8];
+  // Added when Black has to move
+  public static final long SIDE;
+
+  static {
+    // Fixed seed: keys are the same at every run
+    Random random = new Random(0x526F6F6B6965L);
+    for (long[] squares : PIECE_SQUARE) {
+      for (int square = 0; square < 64; square++) {
+        squares[square] = random.nextLong();
+      }
+    }
+    // No castling right -> 0, so that a board without castling rights has a "clean" key
+    for (int rights = 1; rights < 16; rights++) {
+      CASTLING[rights] = random.nextLong();
+    }
+    for (int column = 0; column < 8; column++) {
+      EN_PASSANT_COLUMN[column] = random.nextLong();
+    }
+    SIDE = random.nextLong();
+  }
+
+  private Zobrist() {
+  }
+
+  public static long piece(int pieceIndex, int square) {
+    return PIECE_SQUARE[pieceIndex][square];
+  }
+
+  public static long piece(Color color, ChessPieceType type, int square) {
+    return PIECE_SQUARE[BitBoard.pieceIndex(color, type)][square];
+  }
+
+  public static long piece(Piece p, int square) {
+    return piece(p.getColor(), p.getType(), square);
+  }
+
+  public static long castling(int castlingRights) {
+    return CASTLING[castlingRights];
+  }
+
+  // 0 if there is no en passant tile
+  public static long enPassant(int enPassantSquare) {
+    return enPassantSquare == BitBoard.NO_SQUARE ? 0L : EN_PASSANT_COLUMN[BitBoard.column(enPassantSquare)];
+  }
+
+  public static long side(Color currentPlayerColor) {
+    return currentPlayerColor == Color.BLACK ? SIDE : 0L;
+  }
+
+  // Key computed from scratch (starting boards, and to check the incremental updates)
+  public static long compute(BitBoard board) {
+    long key = 0L;
+    long occupancy = board.getOccupancy();
+    while (occupancy != 0) {
+      int square = Long.numberOfTrailingZeros(occupancy);
+      occupancy &= occupancy - 1;
+      key ^= piece(board.getPieceColor(square), board.getPieceType(square), square);
+    }
+    return key
+            ^ castling(board.getCastlingRights())
+            ^ enPassant(board.getEnPassantSquare())
+            ^ side(board.getCurrentPlayerColor());
+  }
+}
@@ -1,7 +1,11 @@
 package it.unisa.rookie.board.evaluation;
 
+import it.unisa.rookie.board.BitBoard;
 import it.unisa.rookie.board.Board;
 
 public interface Evaluator {
   public int evaluate(Board board);
+
+  // Same evaluation, computed on the BitBoard used by the make/unmake search
+  public int evaluate(BitBoard board);
 }
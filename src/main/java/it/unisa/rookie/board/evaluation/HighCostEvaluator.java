@@ -1,9 +1,13 @@
 package it.unisa.rookie.board.evaluation;
 
+import it.unisa.rookie.board.BitBoard;
 import it.unisa.rookie.board.Board;
 import it.unisa.rookie.board.CastlingMove;
 import it.unisa.rookie.board.Move;
+import it.unisa.rookie.board.MoveGenerator;
+import it.unisa.rookie.board.PackedMove;
 import it.unisa.rookie.board.Player;
+import it.unisa.rookie.piece.ChessPieceType;
 import it.unisa.rookie.piece.Color;
 import it.unisa.rookie.piece.Piece;
 
@@ -178,29 +182,19 @@ public class HighCostEvaluator implements Evaluator {
             + generalStructure(player);
   }
 
+  // Number of moves of the player's pieces (counted, not generated)
   private int mobility(Player player) {
-    return player.getLegalMoves().size();
+    return MoveGenerator.countPseudoLegalMoves(player.getPlayingBoard().getBitBoard(), player.getPlayerColor());
   }
 
+  // Captures where the attacker is worth no more than its victim, counted on
+  // the attack maps instead of the move list
+  // Example:
+  // Knight captures Queen? -> Bonus!
+  // Queen captures Pawn? -> No bonus...
+  // Pawn captures Pawn? -> Bonus!
   private int availableGoodAttacks(Player player) {
-    int attackBonus = 0;
-    // Check all legal moves...
-    for (Move m : player.getLegalMoves()) {
-      Piece attacker = m.getMovedPiece();
-      Piece toAttack = player.getPlayingBoard().getPiece(m.getDestination().getValue());
-      // ...if you can capture a piece...
-      if (toAttack != null) {
-        // ...check its value: if it's lower than the attacker's value, do nothing
-        // Example:
-        // Knight captures Queen? -> Bonus!
-        // Queen captures Pawn? -> No bonus...
-        // Pawn captures Pawn? -> Bonus!
-        if (attacker.getType().getValue() <= toAttack.getType().getValue()) {
-          attackBonus++;
-        }
-      }
-    }
-    return attackBonus;
+    return availableGoodAttacks(player.getPlayingBoard().getBitBoard(), player.getPlayerColor());
   }
 
   private int castlingEvaluation(Player player) {
@@ -283,6 +277,99 @@ public class HighCostEvaluator implements Evaluator {
     return structureScore;
   }
 
+  // BitBoard version of the same evaluation (see the Board methods above)
+
+  @Override
+  public int evaluate(BitBoard board) {
+    return getScoreByColor(board, Color.WHITE) - getScoreByColor(board, Color.BLACK);
+  }
+
+  private int getScoreByColor(BitBoard board, Color color) {
+    return board.getMaterialCount(color)
+            + MoveGenerator.countPseudoLegalMoves(board, color)
+            + availableGoodAttacks(board, color)
+            + castlingEvaluation(board, color)
+            + kingInCheckBonus(board, color)
+            + generalStructure(board, color);
+  }
+
+  private int availableGoodAttacks(BitBoard board, Color color) {
+    int attackBonus = 0;
+    long enemies = board.getOccupancy(color == Color.WHITE ? Color.BLACK : Color.WHITE);
+    long attackers = board.getOccupancy(color);
+    while (attackers != 0) {
+      int square = Long.numberOfTrailingZeros(attackers);
+      attackers &= attackers - 1;
+      ChessPieceType attacker = board.getPieceType(square);
+      long targets = board.getAttacks(square) & enemies;
+      while (targets != 0) {
+        int target = Long.numberOfTrailingZeros(targets);
+        targets &= targets - 1;
+        if (attacker.getValue() <= board.getPieceType(target).getValue()) {
+          // A pawn capturing on the last row is 4 different (promotion) moves
+          int row = BitBoard.row(target);
+          attackBonus += (attacker == ChessPieceType.PAWN && (row == 0 || row == 7)) ? 4 : 1;
+        }
+      }
+    }
+    return attackBonus;
+  }
+
+  private int castlingEvaluation(BitBoard board, Color color) {
+    int m = board.getLastMove();
+    if (m != PackedMove.NONE && PackedMove.isCastling(m)) {
+      return board.getPieceColor(PackedMove.getDestination(m)) == color ? 500 : 0;
+    }
+    return 0;
+  }
+
+  private int kingInCheckBonus(BitBoard board, Color color) {
+    Color opponent = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+
+    if (board.isKingInCheck(opponent)) {
+      if (opponent == board.getCurrentPlayerColor() && !MoveGenerator.hasLegalMove(board)) {
+        return 10000;
+      }
+      return 100;
+    }
+    return 0;
+  }
+
+  private int generalStructure(BitBoard board, Color color) {
+    int structureScore = 0;
+    int totalPieces = Long.bitCount(board.getOccupancy());
+    boolean white = color == Color.WHITE;
+
+    long pieces = board.getOccupancy(color);
+    while (pieces != 0) {
+      int pos = Long.numberOfTrailingZeros(pieces);
+      pieces &= pieces - 1;
+      switch (board.getPieceType(pos)) {
+        case PAWN: structureScore += white ? WHITE_PAWN_STRUCTURE[pos] : BLACK_PAWN_STRUCTURE[pos];
+        break;
+        case KNIGHT: structureScore += white ? WHITE_KNIGHT_STRUCTURE[pos] : BLACK_KNIGHT_STRUCTURE[pos];
+        break;
+        case BISHOP: structureScore += white ? WHITE_BISHOP_STRUCTURE[pos] : BLACK_BISHOP_STRUCTURE[pos];
+        break;
+        case ROOK: structureScore += white ? WHITE_ROOK_STRUCTURE[pos] : BLACK_ROOK_STRUCTURE[pos];
+        break;
+        case QUEEN: structureScore += white ? WHITE_QUEEN_STRUCTURE[pos] : BLACK_QUEEN_STRUCTURE[pos];
+        break;
+        case KING: {
+          // This is an EXTREMELY BASIC example of "tapered eval"
+          int midGameValue = totalPieces
+                  * (white ? WHITE_KING_MIDDLE_GAME_STRUCTURE[pos] : BLACK_KING_MIDDLE_GAME_STRUCTURE[pos]);
+          int endGameValue = (32 - totalPieces)
+                  * (white ? WHITE_KING_END_GAME_STRUCTURE[pos] : BLACK_KING_END_GAME_STRUCTURE[pos]);
+          structureScore += ((midGameValue + endGameValue) / 32);
+        }
+        break;
+        default:
+      }
+    }
+    return structureScore;
+  }
+
   public String getEvaluationDescription(Board board) {
     Player w = board.getWhitePlayer();
     Player b = board.getBlackPlayer();
@@ -1,6 +1,8 @@
 package it.unisa.rookie.board.evaluation;
 
+import it.unisa.rookie.board.BitBoard;
 import it.unisa.rookie.board.Board;
+import it.unisa.rookie.piece.Color;
 import it.unisa.rookie.piece.Piece;
 import java.util.ArrayList;
 
@@ -14,6 +16,11 @@ public class LowCostEvaluator implements Evaluator {
     return board.getWhitePlayer().getMaterialCount() - board.getBlackPlayer().getMaterialCount();
   }
 
+  @Override
+  public int evaluate(BitBoard board) {
+    return board.getMaterialCount(Color.WHITE) - board.getMaterialCount(Color.BLACK);
+  }
+
   /*
   @Override
   public int evaluate(Board board) {
@@ -1,7 +1,8 @@
 package it.unisa.rookie.board.evaluation;
 
+import it.unisa.rookie.board.BitBoard;
 import it.unisa.rookie.board.Board;
-import it.unisa.rookie.board.Move;
+import it.unisa.rookie.board.MoveGenerator;
 import it.unisa.rookie.board.Player;
 import it.unisa.rookie.piece.ChessPieceType;
 import it.unisa.rookie.piece.Color;
@@ -44,25 +45,14 @@ public class MediumCostEvaluator implements Evaluator {
             + pawnStructureScore(player);
   }
 
+  // Captures where the attacker is worth no more than its victim, counted on
+  // the attack maps instead of the move list
+  // Example:
+  // Knight captures Queen? -> Bonus!
+  // Queen captures Pawn? -> No bonus...
+  // Pawn captures Pawn? -> Bonus!
   private int availableGoodAttacks(Player player) {
-    int attackBonus = 0;
-    // Check all legal moves...
-    for (Move m : player.getLegalMoves()) {
-      Piece attacker = m.getMovedPiece();
-      Piece toAttack = player.getPlayingBoard().getPiece(m.getDestination().getValue());
-      // ...if you can capture a piece...
-      if (toAttack != null) {
-        // ...check its value: if it's lower than the attacker's value, do nothing
-        // Example:
-        // Knight captures Queen? -> Bonus!
-        // Queen captures Pawn? -> No bonus...
-        // Pawn captures Pawn? -> Bonus!
-        if (attacker.getType().getValue() <= toAttack.getType().getValue()) {
-          attackBonus++;
-        }
-      }
-    }
-    return attackBonus;
+    return availableGoodAttacks(player.getPlayingBoard().getBitBoard(), player.getPlayerColor());
   }
 
   private int kingInCheckBonus(Player player) {
@@ -97,6 +87,65 @@ public class MediumCostEvaluator implements Evaluator {
     return structureScore;
   }
 
+  // BitBoard version of the same evaluation (see the Board methods above)
+
+  @Override
+  public int evaluate(BitBoard board) {
+    return getScoreByColor(board, Color.WHITE) - getScoreByColor(board, Color.BLACK);
+  }
+
+  private int getScoreByColor(BitBoard board, Color color) {
+    return board.getMaterialCount(color)
+            + availableGoodAttacks(board, color)
+            + kingInCheckBonus(board, color)
+            + pawnStructureScore(board, color);
+  }
+
+  private int availableGoodAttacks(BitBoard board, Color color) {
+    int attackBonus = 0;
+    long enemies = board.getOccupancy(color == Color.WHITE ? Color.BLACK : Color.WHITE);
+    long attackers = board.getOccupancy(color);
+    while (attackers != 0) {
+      int square = Long.numberOfTrailingZeros(attackers);
+      attackers &= attackers - 1;
+      ChessPieceType attacker = board.getPieceType(square);
+      long targets = board.getAttacks(square) & enemies;
+      while (targets != 0) {
+        int target = Long.numberOfTrailingZeros(targets);
+        targets &= targets - 1;
+        if (attacker.getValue() <= board.getPieceType(target).getValue()) {
+          // A pawn capturing on the last row is 4 different (promotion) moves
+          int row = BitBoard.row(target);
+          attackBonus += (attacker == ChessPieceType.PAWN && (row == 0 || row == 7)) ? 4 : 1;
+        }
+      }
+    }
+    return attackBonus;
+  }
+
+  private int kingInCheckBonus(BitBoard board, Color color) {
+    Color opponent = (color == Color.WHITE) ? Color.BLACK : Color.WHITE;
+
+    if (board.isKingInCheck(opponent)) {
+      if (opponent == board.getCurrentPlayerColor() && !MoveGenerator.hasLegalMove(board)) {
+        return 10000;
+      }
+      return 100;
+    }
+    return 0;
+  }
+
+  private int pawnStructureScore(BitBoard board, Color color) {
+    int structureScore = 0;
+    int[] structure = (color == Color.WHITE) ? WHITE_PAWN_STRUCTURE : BLACK_PAWN_STRUCTURE;
+    long pawns = board.getPieces(color, ChessPieceType.PAWN);
+    while (pawns != 0) {
+      structureScore += structure[Long.numberOfTrailingZeros(pawns)];
+      pawns &= pawns - 1;
+    }
+    return structureScore;
+  }
+
   @Override
   public String toString() {
     return "MediumCostEvaluator{}";
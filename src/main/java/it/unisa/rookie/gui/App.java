@@ -7,8 +7,11 @@ import it.unisa.rookie.ai.AlphaBetaPlayerWithMoveOrderingAndKillerMovesAndQuiesc
 import it.unisa.rookie.ai.ArtificialIntelligencePlayer;
 import it.unisa.rookie.ai.ArtificialIntelligenceTask;
 import it.unisa.rookie.ai.MiniMaxPlayer;
+import it.unisa.rookie.ai.NegamaxPlayer;
+import it.unisa.rookie.ai.ParallelAlphaBetaPlayer;
 import it.unisa.rookie.ai.RandomAlphaBetaPlayer;
 import it.unisa.rookie.ai.RandomPlayer;
+import it.unisa.rookie.ai.TranspositionTable;
 import it.unisa.rookie.board.Board;
 import it.unisa.rookie.board.Move;
 import it.unisa.rookie.board.PawnPromotionMove;
@@ -92,6 +95,7 @@ public class App extends Application {
   private RadioMenuItem alphaBetaPlayerItem;
   private RadioMenuItem randomAlphaBetaPlayerItem;
   private RadioMenuItem moveOrderingAlphaBetaPlayerItem;
+  private RadioMenuItem parallelAlphaBetaPlayerItem;
   private RadioMenuItem killerAlphaBetaPlayerItem;
   private RadioMenuItem quiescenceAlphaBetaPlayerItem;
   private RadioMenuItem lowCostEvItem;
@@ -111,7 +115,20 @@ public class App extends Application {
 
   private Transition aiTransition;
 
+  // The search of the AI player to move, while it is running
+  private ArtificialIntelligenceTask aiTask;
+
   private TextField depthTextField;
+  private TextField timeTextField;
+  private TextField threadsTextField;
+  private TextField nodeLimitTextField;
+
+  // Shared by the AI players of a match, so that each search starts from what the
+  // previous ones found. Scores depend on the evaluator: the table is cleared when
+  // a different one is chosen.
+  private TranspositionTable transpositionTable;
+  private Class<? extends Evaluator> transpositionTableEvaluator;
+  private static final int TRANSPOSITION_TABLE_SIZE_MB = 64;
 
   private MenuBar createMenuBar() {
     // File Menu
@@ -153,6 +170,7 @@ public class App extends Application {
     alphaBetaPlayerItem = new RadioMenuItem("Alpha Beta Pruning player");
     randomAlphaBetaPlayerItem = new RadioMenuItem("Random Alpha Beta Pruning player");
     moveOrderingAlphaBetaPlayerItem = new RadioMenuItem("Alpha Beta Pruning with move ordering player");
+    parallelAlphaBetaPlayerItem = new RadioMenuItem("Parallel Alpha Beta Pruning with move ordering player");
     killerAlphaBetaPlayerItem = new RadioMenuItem("Alpha Beta Pruning with move ordering and killer moves player");
     quiescenceAlphaBetaPlayerItem = new RadioMenuItem("Alpha Beta Pruning with move ordering, killer moves and quiescence search player");
 
@@ -163,6 +181,7 @@ public class App extends Application {
     alphaBetaPlayerItem.setToggleGroup(playerRadioGroup);
     randomAlphaBetaPlayerItem.setToggleGroup(playerRadioGroup);
     moveOrderingAlphaBetaPlayerItem.setToggleGroup(playerRadioGroup);
+    parallelAlphaBetaPlayerItem.setToggleGroup(playerRadioGroup);
     killerAlphaBetaPlayerItem.setToggleGroup(playerRadioGroup);
     quiescenceAlphaBetaPlayerItem.setToggleGroup(playerRadioGroup);
 
@@ -175,6 +194,7 @@ public class App extends Application {
             alphaBetaPlayerItem,
             randomAlphaBetaPlayerItem,
             moveOrderingAlphaBetaPlayerItem,
+            parallelAlphaBetaPlayerItem,
             killerAlphaBetaPlayerItem,
             quiescenceAlphaBetaPlayerItem
     );
@@ -250,11 +270,16 @@ public class App extends Application {
     Button undoButton = new Button("Undo last move");
     undoButton.setOnAction(actionEvent ->  {
       if (!gameHistory.empty()) {
+        // The move being searched is for a board that no longer exists
+        boolean searchStopped = cancelArtificialIntelligenceTask();
         selectedPiece = null;
         aiTransition = null;
         log.appendText("Undo move #" + gameHistory.size() + "\n");
         Transition t = gameHistory.pop();
         gameBoard = t.getStartBoard();
+        if (searchStopped) {
+          letComputerPlayIfPossible();
+        }
         drawBoard();
       }
     });
@@ -275,28 +300,65 @@ public class App extends Application {
     pane.add(depthLabel, 4, 0, 1, 1);
     pane.add(this.depthTextField, 5, 0, 1, 1);
 
+    // Milliseconds for each move of the iterative deepening players, 0 to search
+    // at the chosen depth
+    Label timeLabel = new Label("Time per move (ms): ");
+    this.timeTextField = new TextField();
+    this.timeTextField.setText("0");  // Default value
+
+    pane.add(timeLabel, 6, 0, 1, 1);
+    pane.add(this.timeTextField, 7, 0, 1, 1);
+
+    // Threads searching each move (used by the players with a transposition table)
+    Label threadsLabel = new Label("Threads: ");
+    this.threadsTextField = new TextField();
+    this.threadsTextField.setText("1");  // Default value
+
+    pane.add(threadsLabel, 8, 0, 1, 1);
+    pane.add(this.threadsTextField, 9, 0, 1, 1);
+
+    // Boards each search can examine at most, 0 for no limit
+    Label nodeLimitLabel = new Label("Node limit: ");
+    this.nodeLimitTextField = new TextField();
+    this.nodeLimitTextField.setText("0");  // Default value
+
+    pane.add(nodeLimitLabel, 10, 0, 1, 1);
+    pane.add(this.nodeLimitTextField, 11, 0, 1, 1);
+
     this.isWhiteAiCheckBox = new CheckBox("White AI Controlled");
     this.isBlackAiCheckBox = new CheckBox("Black AI Controlled");
 
+    // A search still running is stopped, and started again (with the current
+    // settings) if it is still the computer's turn
     this.isWhiteAiCheckBox.setOnAction((ActionEvent t) -> {
+      boolean searchStopped = cancelArtificialIntelligenceTask();
       if (this.isWhiteAiCheckBox.isSelected()) {
         this.isWhiteAi = true;
-        if (gameBoard.getCurrentPlayer().getPlayerColor() == it.unisa.rookie.piece.Color.WHITE) {
+        if (searchStopped
+                || gameBoard.getCurrentPlayer().getPlayerColor() == it.unisa.rookie.piece.Color.WHITE) {
           letComputerPlayIfPossible();
         }
       } else {
         this.isWhiteAi = false;
+        if (searchStopped) {
+          letComputerPlayIfPossible();
+        }
       }
     });
 
     this.isBlackAiCheckBox.setOnAction((ActionEvent t) -> {
+      boolean searchStopped = cancelArtificialIntelligenceTask();
       if (this.isBlackAiCheckBox.isSelected()) {
         this.isBlackAi = true;
-        if (gameBoard.getCurrentPlayer().getPlayerColor() == it.unisa.rookie.piece.Color.BLACK) {
+        if (searchStopped
+                || gameBoard.getCurrentPlayer().getPlayerColor() == it.unisa.rookie.piece.Color.BLACK) {
           letComputerPlayIfPossible();
         }
       } else {
         this.isBlackAi = false;
+        if (searchStopped) {
+          letComputerPlayIfPossible();
+        }
       }
     });
 
@@ -421,17 +483,16 @@ public class App extends Application {
 
         if (found) {
           Board newGameBoard = userMove.makeMove();
-          if (newGameBoard.getOpponentPlayer().isKingInCheck()) {
-            logKingInCheckInfo(newGameBoard.getOpponentPlayer());
-          } else {
-            Transition t = new Transition(gameBoard, newGameBoard, userMove);
-            gameHistory.push(t);
-            gameBoard = newGameBoard;
-
-            if (logMenuItem.isSelected()) {
-              logBoardInfo();
-            }
+          Transition t = new Transition(gameBoard, newGameBoard, userMove);
+          gameHistory.push(t);
+          gameBoard = newGameBoard;
+
+          if (logMenuItem.isSelected()) {
+            logBoardInfo();
           }
+        } else if (gameBoard.getCurrentPlayer().getPieceMoves().contains(userMove)) {
+          // The piece can move there, but it would leave the King in check
+          logKingInCheckInfo(gameBoard.getCurrentPlayer());
         }
         selectedPiece = null;
       }
@@ -476,6 +537,9 @@ public class App extends Application {
 
   public void createArtificialIntelligenceTask() {
     int depth = 0;
+    long timeBudget = 0;
+    int threads = 1;
+    long nodeLimit = 0;
     Evaluator ev;
     ArtificialIntelligencePlayer ai;
 
@@ -493,6 +557,42 @@ public class App extends Application {
       depth = 6;  // Default value
     }
 
+    // Read user-chosen time per move
+    try {
+      if (this.timeTextField != null) {
+        timeBudget = Long.parseLong(this.timeTextField.getText());
+      }
+    } catch (NumberFormatException e) {
+      this.log.appendText("WARNING! The time field MUST contain a number! "
+              + "Proceeding with depth = " + depth + ".\n"
+      );
+      timeBudget = 0;  // Default value
+    }
+
+    // Read user-chosen number of threads
+    try {
+      if (this.threadsTextField != null) {
+        threads = Integer.parseInt(this.threadsTextField.getText());
+      }
+    } catch (NumberFormatException e) {
+      this.log.appendText("WARNING! The threads field MUST contain a number! "
+              + "Proceeding with 1 thread.\n"
+      );
+      threads = 1;  // Default value
+    }
+
+    // Read user-chosen node limit
+    try {
+      if (this.nodeLimitTextField != null) {
+        nodeLimit = Long.parseLong(this.nodeLimitTextField.getText());
+      }
+    } catch (NumberFormatException e) {
+      this.log.appendText("WARNING! The node limit field MUST contain a number! "
+              + "Proceeding without a limit.\n"
+      );
+      nodeLimit = 0;  // Default value
+    }
+
     // Read user-chosen board evaluation
     if (highCostEvItem.isSelected()) {
       ev = new HighCostEvaluator();
@@ -504,13 +604,20 @@ public class App extends Application {
       ev = new LowCostEvaluator();
     }
 
+    if (ev.getClass() != this.transpositionTableEvaluator) {
+      this.transpositionTable.clear();
+      this.transpositionTableEvaluator = ev.getClass();
+    }
+
     // Read user-chosen AI player type
     if (quiescenceAlphaBetaPlayerItem.isSelected()) {
-      ai = new AlphaBetaPlayerWithMoveOrderingAndKillerMovesAndQuiescenceSearch(depth, ev);
+      ai = new AlphaBetaPlayerWithMoveOrderingAndKillerMovesAndQuiescenceSearch(depth, ev, transpositionTable);
     } else if (killerAlphaBetaPlayerItem.isSelected()) {
-      ai = new AlphaBetaPlayerWithMoveOrderingAndKillerMoves(depth, ev);
+      ai = new AlphaBetaPlayerWithMoveOrderingAndKillerMoves(depth, ev, transpositionTable);
     } else if (moveOrderingAlphaBetaPlayerItem.isSelected()) {
-      ai = new AlphaBetaPlayerWithMoveOrdering(depth, ev);
+      ai = new AlphaBetaPlayerWithMoveOrdering(depth, ev, transpositionTable);
+    } else if (parallelAlphaBetaPlayerItem.isSelected()) {
+      ai = new ParallelAlphaBetaPlayer(depth, ev, transpositionTable);
     } else if (randomAlphaBetaPlayerItem.isSelected()) {
       ai = new RandomAlphaBetaPlayer(depth, ev);
     } else if (alphaBetaPlayerItem.isSelected()) {
@@ -523,8 +630,23 @@ public class App extends Application {
       ai = new RandomPlayer();  // Default choice - for now
     }
 
+    if (ai instanceof NegamaxPlayer) {
+      ((NegamaxPlayer) ai).setTimeBudget(timeBudget);
+      ((NegamaxPlayer) ai).setThreads(threads);
+      ((NegamaxPlayer) ai).setNodeLimit(nodeLimit);
+    } else if (ai instanceof ParallelAlphaBetaPlayer) {
+      ((ParallelAlphaBetaPlayer) ai).setThreads(threads);
+      ((ParallelAlphaBetaPlayer) ai).setNodeLimit(nodeLimit);
+    }
+
     ArtificialIntelligenceTask task = new ArtificialIntelligenceTask(gameBoard, ai);
+    this.aiTask = task;
     task.setOnSucceeded(event -> {
+      // A task that was cancelled (or replaced) must not touch the match
+      if (task != aiTask) {
+        return;
+      }
+      aiTask = null;
       aiTransition = task.getValue();
       gameHistory.push(aiTransition);
       gameBoard = aiTransition.getEndBoard();
@@ -543,6 +665,17 @@ public class App extends Application {
     th.start();
   }
 
+  // Stops the search of the AI player, if it is running: its move will never be
+  // played. Returns true if there was one.
+  public boolean cancelArtificialIntelligenceTask() {
+    if (this.aiTask == null) {
+      return false;
+    }
+    this.aiTask.cancel(false);
+    this.aiTask = null;
+    return true;
+  }
+
   public void letComputerPlayIfPossible() {
     if (!gameBoard.matchIsOver() && isComputerTurn()) {
 
@@ -595,10 +728,12 @@ public class App extends Application {
   }
 
   public void startNewMatch() {
+    cancelArtificialIntelligenceTask();
     this.selectedPiece = null;
     this.aiTransition = null;
     this.gameHistory = new Stack<>();
     this.gameBoard = new Board(WHITE);
+    this.transpositionTable.clear();
 
     this.isWhiteAiCheckBox.setDisable(false);
     this.isBlackAiCheckBox.setDisable(false);
@@ -645,6 +780,7 @@ public class App extends Application {
   @Override
   public void start(Stage primaryStage) {
     this.gameHistory = new Stack<>();
+    this.transpositionTable = new TranspositionTable(TRANSPOSITION_TABLE_SIZE_MB);
 
     it.unisa.rookie.piece.Color startingPlayerColor = WHITE;
 
@@ -0,0 +1,389 @@
+package it.unisa.rookie.perft;
+
+import it.unisa.rookie.board.BitBoard;
+import it.unisa.rookie.board.Board;
+import it.unisa.rookie.board.Fen;
+import it.unisa.rookie.board.Move;
+import it.unisa.rookie.board.MoveGenerator;
+import it.unisa.rookie.board.MoveList;
+import it.unisa.rookie.board.PackedMove;
+import it.unisa.rookie.board.PawnPromotionMove;
+import it.unisa.rookie.piece.ChessPieceType;
+import it.unisa.rookie.piece.King;
+import it.unisa.rookie.piece.Piece;
+import it.unisa.rookie.piece.Position;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Perft ("performance test") walks the tree of legal moves up to a fixed depth and
+// counts its leaves: compared with the known results of the PerftPosition values it
+// checks move generation, and the nodes per second measure how fast it is.
+// See: https://www.chessprogramming.org/Perft
+//
+// Subtrees are split among the threads of a ForkJoinPool, and an optional
+// PerftHash shared by all the threads counts transposed subtrees only once.
+//
+// Usage:
+//   Perft [options] [--max-nodes N]
+//       runs the reference positions, up to the depths with at most N expected nodes
+//   Perft [options] --depth D [--divide] [--fen FEN]
+//       counts the nodes of a single position (the starting one by default);
+//       --divide also prints the nodes below each move of the root
+// Options:
+//   --mode board|pieces|bitboard   how moves are generated and played (default: board)
+//   --threads N                    default: one for each available processor
+//   --hash MB                      size of the perft hash (default: 0, no hash)
+public class Perft {
+  public enum Mode {
+    // Player.getLegalMoves() and Move.makeMove(), as the GUI and MiniMaxPlayer do
+    BOARD,
+    // Piece.getLegalMoves() and King.getCastlingMoves(), keeping the moves that
+    // don't leave the King in check: checks the rules of every Piece
+    PIECES,
+    // MoveGenerator.generateLegalMoves() and BitBoard.makeMove()/unmakeMove(),
+    // as the AlphaBeta players do
+    BITBOARD
+  }
+
+  private static final long DEFAULT_MAX_NODES = 1000000L;
+  private static final long DEFAULT_BITBOARD_MAX_NODES = 20000000L;
+
+  // Subtrees this deep (or less) are counted by a single thread: smaller tasks
+  // would cost more to schedule than to count
+  private static final int SEQUENTIAL_DEPTH = 3;
+
+  private final Mode mode;
+  // null when running on a single thread
+  private final ForkJoinPool pool;
+  // null when disabled
+  private final PerftHash hash;
+
+  public Perft(Mode mode) {
+    this(mode, 1, 0);
+  }
+
+  public Perft(Mode mode, int threads, int hashMegabytes) {
+    this.mode = mode;
+    this.pool = (threads > 1) ? new ForkJoinPool(threads) : null;
+    this.hash = (hashMegabytes > 0) ? new PerftHash(hashMegabytes) : null;
+  }
+
+  public long perft(Board board, int depth) {
+    if (mode == Mode.BITBOARD) {
+      return perft(new BitBoard(board.getBitBoard()), depth);
+    }
+    if (pool != null) {
+      return pool.invoke(new BoardTask(board, depth));
+    }
+    return count(board, depth);
+  }
+
+  private long perft(BitBoard board, int depth) {
+    if (pool != null) {
+      return pool.invoke(new BitBoardTask(board, depth));
+    }
+    return count(board, depth, newMoveLists(depth));
+  }
+
+  private long count(Board board, int depth) {
+    if (depth == 0) {
+      return 1;
+    }
+    long nodes = probe(board.getZobristKey(), depth);
+    if (nodes >= 0) {
+      return nodes;
+    }
+    ArrayList<Move> moves = getLegalMoves(board);
+    // Bulk counting: the moves of the last ply don't need to be played
+    if (depth == 1) {
+      return moves.size();
+    }
+    nodes = 0;
+    for (Move m : moves) {
+      nodes += count(m.makeMove(), depth - 1);
+    }
+    store(board.getZobristKey(), depth, nodes);
+    return nodes;
+  }
+
+  // Same as perft(), printing the nodes below each move of the root
+  public long divide(Board board, int depth) {
+    long nodes = 0;
+    if (mode == Mode.BITBOARD) {
+      BitBoard bitBoard = new BitBoard(board.getBitBoard());
+      MoveList moves = new MoveList();
+      MoveGenerator.generateLegalMoves(bitBoard, moves);
+      for (int i = 0; i < moves.size(); i++) {
+        int move = moves.get(i);
+        bitBoard.makeMove(move);
+        long moveNodes = perft(new BitBoard(bitBoard), depth - 1);
+        bitBoard.unmakeMove();
+        System.out.println(toCoordinates(PackedMove.getSource(move), PackedMove.getDestination(move),
+                PackedMove.isPromotion(move) ? PackedMove.getPromotionType(move) : null) + ": " + moveNodes);
+        nodes += moveNodes;
+      }
+    } else {
+      for (Move m : getLegalMoves(board)) {
+        long moveNodes = perft(m.makeMove(), depth - 1);
+        ChessPieceType promotion = (m instanceof PawnPromotionMove)
+                ? ((PawnPromotionMove) m).getPromotionPiece().getType()
+                : null;
+        System.out.println(toCoordinates(m.getSource().getValue(), m.getDestination().getValue(), promotion)
+                + ": " + moveNodes);
+        nodes += moveNodes;
+      }
+    }
+    return nodes;
+  }
+
+  private ArrayList<Move> getLegalMoves(Board board) {
+    if (mode == Mode.BOARD) {
+      return board.getCurrentPlayer().getLegalMoves();
+    }
+
+    ArrayList<Move> moves = new ArrayList<>();
+    ArrayList<Piece> pieces = board.getCurrentPlayer().getPieces();
+    for (Piece p : pieces) {
+      for (Move m : p.getLegalMoves(board)) {
+        if (!m.makeMove().getOpponentPlayer().isKingInCheck()) {
+          moves.add(m);
+        }
+      }
+      if (p.getType() == ChessPieceType.KING) {
+        // Castling moves already check the tiles crossed by the King
+        moves.addAll(((King) p).getCastlingMoves(board));
+      }
+    }
+    return moves;
+  }
+
+  private long count(BitBoard board, int depth, MoveList[] moveLists) {
+    if (depth == 0) {
+      return 1;
+    }
+    long nodes = probe(board.getZobristKey(), depth);
+    if (nodes >= 0) {
+      return nodes;
+    }
+    MoveList moves = moveLists[depth];
+    int count = MoveGenerator.generateLegalMoves(board, moves);
+    if (depth == 1) {
+      return count;
+    }
+    nodes = 0;
+    for (int i = 0; i < count; i++) {
+      board.makeMove(moves.get(i));
+      nodes += count(board, depth - 1, moveLists);
+      board.unmakeMove();
+    }
+    store(board.getZobristKey(), depth, nodes);
+    return nodes;
+  }
+
+  // Counts at depth 1 are cheaper to compute than to look up
+  private long probe(long zobristKey, int depth) {
+    return (hash != null && depth > 1) ? hash.probe(zobristKey, depth) : -1;
+  }
+
+  private void store(long zobristKey, int depth, long nodes) {
+    if (hash != null) {
+      hash.store(zobristKey, depth, nodes);
+    }
+  }
+
+  // Child Boards are made by the parent task and counted by other threads: a Board
+  // is never changed once built, and its lazily generated move lists are safely
+  // published (see Player)
+  private class BoardTask extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 1L;
+
+    private final Board board;
+    private final int depth;
+
+    BoardTask(Board board, int depth) {
+      this.board = board;
+      this.depth = depth;
+    }
+
+    @Override
+    protected Long compute() {
+      if (depth <= SEQUENTIAL_DEPTH) {
+        return count(board, depth);
+      }
+      long nodes = probe(board.getZobristKey(), depth);
+      if (nodes >= 0) {
+        return nodes;
+      }
+      List<BoardTask> tasks = new ArrayList<>();
+      for (Move m : getLegalMoves(board)) {
+        tasks.add(new BoardTask(m.makeMove(), depth - 1));
+      }
+      nodes = 0;
+      for (BoardTask task : invokeAll(tasks)) {
+        nodes += task.join();
+      }
+      store(board.getZobristKey(), depth, nodes);
+      return nodes;
+    }
+  }
+
+  // Each task plays its moves on its own copy of the BitBoard
+  private class BitBoardTask extends RecursiveTask<Long> {
+    private static final long serialVersionUID = 1L;
+
+    private final BitBoard board;
+    private final int depth;
+
+    BitBoardTask(BitBoard board, int depth) {
+      this.board = board;
+      this.depth = depth;
+    }
+
+    @Override
+    protected Long compute() {
+      if (depth <= SEQUENTIAL_DEPTH) {
+        return count(board, depth, newMoveLists(depth));
+      }
+      long nodes = probe(board.getZobristKey(), depth);
+      if (nodes >= 0) {
+        return nodes;
+      }
+      MoveList moves = new MoveList();
+      MoveGenerator.generateLegalMoves(board, moves);
+      List<BitBoardTask> tasks = new ArrayList<>(moves.size());
+      for (int i = 0; i < moves.size(); i++) {
+        board.makeMove(moves.get(i));
+        tasks.add(new BitBoardTask(new BitBoard(board), depth - 1));
+        board.unmakeMove();
+      }
+      nodes = 0;
+      for (BitBoardTask task : invokeAll(tasks)) {
+        nodes += task.join();
+      }
+      store(board.getZobristKey(), depth, nodes);
+      return nodes;
+    }
+  }
+
+  private static MoveList[] newMoveLists(int depth) {
+    MoveList[] moveLists = new MoveList[depth + 1];
+    for (int i = 0; i <= depth; i++) {
+      moveLists[i] = new MoveList();
+    }
+    return moveLists;
+  }
+
+  // Coordinate notation, e.g. "e2e4" or "a7a8q"
+  private static String toCoordinates(int source, int destination, ChessPieceType promotion) {
+    String result = (Position.fromValue(source).name() + Position.fromValue(destination).name())
+            .toLowerCase(Locale.ROOT);
+    if (promotion != null) {
+      result += promotion.getShortName().toLowerCase(Locale.ROOT);
+    }
+    return result;
+  }
+
+  private static long nodesPerSecond(long nodes, long nanoseconds) {
+    return nanoseconds == 0 ? 0 : nodes * 1000000000L / nanoseconds;
+  }
+
+  // Runs the reference positions and returns how many results were wrong
+  public int runReferencePositions(long maxNodes) {
+    int failures = 0;
+    long totalNodes = 0;
+    long totalTime = 0;
+    for (PerftPosition position : PerftPosition.values()) {
+      Board board = Fen.toBoard(position.getFen());
+      System.out.println(position.getName() + " (" + position.getFen() + ")");
+      for (int depth = 1; depth <= position.getMaxDepth(); depth++) {
+        long expected = position.getExpectedNodes(depth);
+        if (expected > maxNodes) {
+          break;
+        }
+        long startTime = System.nanoTime();
+        long nodes = perft(board, depth);
+        long time = System.nanoTime() - startTime;
+        totalNodes += nodes;
+        totalTime += time;
+
+        boolean passed = nodes == expected;
+        if (!passed) {
+          failures++;
+        }
+        System.out.println("\tdepth " + depth + ": " + nodes + " nodes"
+                + (passed ? "" : " (expected " + expected + ") FAILED")
+                + ", " + (time / 1000000) + "ms, " + nodesPerSecond(nodes, time) + " nps");
+      }
+    }
+    System.out.println("Total: " + totalNodes + " nodes, " + (totalTime / 1000000) + "ms, "
+            + nodesPerSecond(totalNodes, totalTime) + " nps (mode = " + mode + ")");
+    System.out.println(failures == 0 ? "All results are correct" : failures + " wrong results");
+    return failures;
+  }
+
+  public static void main(String[] args) {
+    Mode mode = Mode.BOARD;
+    Long maxNodes = null;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int hashMegabytes = 0;
+    int depth = 0;
+    boolean divide = false;
+    String fen = Fen.STARTING_POSITION;
+
+    for (int i = 0; i < args.length; i++) {
+      switch (args[i]) {
+        case "--mode":
+          mode = Mode.valueOf(args[++i].toUpperCase(Locale.ROOT));
+          break;
+        case "--max-nodes":
+          maxNodes = Long.parseLong(args[++i]);
+          break;
+        case "--threads":
+          threads = Integer.parseInt(args[++i]);
+          break;
+        case "--hash":
+          hashMegabytes = Integer.parseInt(args[++i]);
+          break;
+        case "--depth":
+          depth = Integer.parseInt(args[++i]);
+          break;
+        case "--divide":
+          divide = true;
+          break;
+        case "--fen":
+          // The FEN fields are separate arguments unless they are quoted
+          StringBuilder builder = new StringBuilder();
+          while (i + 1 < args.length && !args[i + 1].startsWith("--")) {
+            builder.append(args[++i]).append(' ');
+          }
+          fen = builder.toString().trim();
+          break;
+        default:
+          System.err.println("Unknown argument: " + args[i]);
+          System.err.println("Usage: Perft [--mode board|pieces|bitboard] [--threads N] [--hash MB]"
+                  + " [--max-nodes N]\n"
+                  + "       Perft [--mode board|pieces|bitboard] [--threads N] [--hash MB]"
+                  + " --depth D [--divide] [--fen FEN]");
+          System.exit(2);
+      }
+    }
+
+    Perft perft = new Perft(mode, threads, hashMegabytes);
+    if (depth == 0) {
+      if (maxNodes == null) {
+        maxNodes = (mode == Mode.BITBOARD) ? DEFAULT_BITBOARD_MAX_NODES : DEFAULT_MAX_NODES;
+      }
+      System.exit(perft.runReferencePositions(maxNodes) == 0 ? 0 : 1);
+    }
+
+    Board board = Fen.toBoard(fen);
+    long startTime = System.nanoTime();
+    long nodes = divide ? perft.divide(board, depth) : perft.perft(board, depth);
+    long time = System.nanoTime() - startTime;
+    System.out.println("Nodes: " + nodes + ", " + (time / 1000000) + "ms, "
+            + nodesPerSecond(nodes, time) + " nps (mode = " + mode + ")");
+  }
+}
@@ -0,0 +1,48 @@
+package it.unisa.rookie.perft;
+
+// Node counts of already visited (position, depth) pairs, so that transposed
+// subtrees are counted only once.
+//
+// It is shared by the perft threads without locks: each entry is written as two
+// longs, the data (nodes and depth) and the Zobrist key XOR the data. An entry
+// half written by another thread no longer matches its key, and it is simply
+// treated as missing.
+// See: https://www.chessprogramming.org/Shared_Hash_Table#Lockless
+public class PerftHash {
+  private static final int DEPTH_BITS = 8;
+  private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+  // Two longs for each entry
+  private static final int ENTRY_SIZE = 16;
+
+  private final long[] keys;
+  private final long[] data;
+  private final int mask;
+
+  public PerftHash(int megabytes) {
+    // Largest power of two number of entries that fits in the given size
+    long entries = Long.highestOneBit(Math.max(1L, megabytes * 1024L * 1024L / ENTRY_SIZE));
+    entries = Math.min(entries, 1L << 30);
+    this.keys = new long[(int) entries];
+    this.data = new long[(int) entries];
+    this.mask = (int) entries - 1;
+  }
+
+  // Nodes below the position at this depth, or -1 if they are unknown
+  public long probe(long zobristKey, int depth) {
+    int index = (int) zobristKey & mask;
+    long entryData = data[index];
+    long entryKey = keys[index];
+    if ((entryKey ^ entryData) == zobristKey && (entryData & DEPTH_MASK) == depth) {
+      return entryData >>> DEPTH_BITS;
+    }
+    return -1;
+  }
+
+  // Always replaces: the latest subtrees are the most likely to be transposed into
+  public void store(long zobristKey, int depth, long nodes) {
+    int index = (int) zobristKey & mask;
+    long entryData = (nodes << DEPTH_BITS) | depth;
+    data[index] = entryData;
+    keys[index] = zobristKey ^ entryData;
+  }
+}
@@ -1,7 +1,9 @@
 package it.unisa.rookie.piece;
 
+import it.unisa.rookie.board.BitBoard;
 import it.unisa.rookie.board.Board;
 import it.unisa.rookie.board.Move;
+import it.unisa.rookie.board.SlidingPieceAttacks;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -17,51 +19,22 @@ public class Bishop extends Piece {
 
   @Override
   public Collection<Move> getLegalMoves(Board board) {
-    int[] possibleOffsets = {-9, -7, 7, 9};
-
-    ArrayList<Move> moves = new ArrayList<>();
-
-    int column;
-
-    for (int offset : possibleOffsets) {
-
-      int startingPosition = this.getPosition().getValue();
-      int candidateDestination = startingPosition;
-
-      while (candidateDestination >= 0 && candidateDestination < 64) {
-
-        column = candidateDestination % 8;
-
-        // Avoid weird "jumps" from one end of the board to the other
-        if (column == 0 && (offset == -9 || offset == 7)) {
-          break;
-        }
-        if (column == 7 && (offset == -7 || offset == 9)) {
-          break;
-        }
-
-        candidateDestination = candidateDestination + offset;
-
-        if (candidateDestination >= 0 && candidateDestination < 64) {
-          Piece pieceToCapture = board.getPiece(candidateDestination);
-          if (pieceToCapture == null) {
-            moves.add(new Move(board,
-                    this.getPosition(),
-                    Position.values()[candidateDestination],
-                    this)
-            );
-          } else {
-            if (pieceToCapture.getColor() != this.getColor()) {
-              moves.add(new Move(board,
-                      this.getPosition(),
-                      Position.values()[candidateDestination],
-                      this)
-              );
-            }
-            break;
-          }
-        }
-      }
+    BitBoard bitBoard = board.getBitBoard();
+    int source = this.getPosition().getValue();
+
+    // Empty tiles and opponent pieces along the rays
+    long targets = SlidingPieceAttacks.bishopAttacks(source, bitBoard.getOccupancy())
+            & ~bitBoard.getOccupancy(this.getColor());
+
+    ArrayList<Move> moves = new ArrayList<>(Long.bitCount(targets));
+    while (targets != 0) {
+      int candidateDestination = Long.numberOfTrailingZeros(targets);
+      targets &= targets - 1;
+      moves.add(new Move(board,
+              this.getPosition(),
+              Position.fromValue(candidateDestination),
+              this)
+      );
     }
     return moves;
   }
@@ -1,9 +1,10 @@
 package it.unisa.rookie.piece;
 
+import it.unisa.rookie.board.BitBoard;
 import it.unisa.rookie.board.Board;
 import it.unisa.rookie.board.CastlingMove;
+import it.unisa.rookie.board.LeapingPieceAttacks;
 import it.unisa.rookie.board.Move;
-import it.unisa.rookie.board.Player;
 import java.util.ArrayList;
 import java.util.Collection;
 
@@ -19,166 +20,88 @@ public class King extends Piece {
 
   @Override
   public Collection<Move> getLegalMoves(Board board) {
-    int[] possibleOffsets = {-9, -8, -7, -1, 1, 7, 8, 9};
-
-    ArrayList<Move> moves = new ArrayList<>();
-
-    int column = this.getPosition().getValue() % 8;
-
-    for (int offset : possibleOffsets) {
-      if (column == 0 && (offset == -9 || offset == -1 || offset == 7)) {
-        continue;
-      }
-      if (column == 7 && (offset == -7 || offset == 1 || offset == 9)) {
-        continue;
-      }
-
-      int candidateDestination = this.getPosition().getValue() + offset;
-
-      if (candidateDestination >= 0 && candidateDestination < 64) {
-        Piece pieceToCapture = board.getPiece(candidateDestination);
-        if (pieceToCapture == null) {
-          moves.add(new Move(board,
-                    this.getPosition(),
-                    Position.values()[candidateDestination],
-                    this)
-          );
-        } else {
-          if (pieceToCapture.getColor() != this.getColor()) {
-            moves.add(new Move(board,
-                    this.getPosition(),
-                    Position.values()[candidateDestination],
-                    this)
-            );
-          }
-        }
-      }
+    BitBoard bitBoard = board.getBitBoard();
+
+    // Empty tiles and opponent pieces
+    long targets = LeapingPieceAttacks.kingAttacks(this.getPosition().getValue())
+            & ~bitBoard.getOccupancy(this.getColor());
+
+    ArrayList<Move> moves = new ArrayList<>(Long.bitCount(targets));
+    while (targets != 0) {
+      int candidateDestination = Long.numberOfTrailingZeros(targets);
+      targets &= targets - 1;
+      moves.add(new Move(board,
+              this.getPosition(),
+              Position.fromValue(candidateDestination),
+              this)
+      );
     }
     return moves;
   }
 
+  // The King and the Rook must have never moved, the tiles between them must be
+  // empty and the King can't be in check, nor cross or reach an attacked tile
   public ArrayList<Move> getCastlingMoves(Board board) {
     ArrayList<Move> castlingMoves = new ArrayList<>();
 
-    if (this.getColor() == Color.WHITE) {
-      Player p = board.getWhitePlayer();
-
-      Piece pawnAttacker = board.getPiece(Position.E2.getValue());
-      boolean isOpponentPawnInFrontOfTheKing =
-              pawnAttacker != null
-                      && pawnAttacker.getType() == ChessPieceType.PAWN
-                      && pawnAttacker.getColor() != this.getColor();
+    boolean isWhite = this.getColor() == Color.WHITE;
+    Color opponentColor = isWhite ? Color.BLACK : Color.WHITE;
+    Position kingStart = isWhite ? Position.E1 : Position.E8;
 
-      // WHITE KING SIDE CASTLING (SHORT CASTLING)
-      if (board.getPiece(Position.F1.getValue()) == null && board.getPiece(Position.G1.getValue()) == null) {
-        if (this.isFirstMove() && this.getPosition() == Position.E1 && !p.isKingInCheck()) {
-          Piece kingSideRook = board.getPiece(Position.H1.getValue());
-          if (kingSideRook != null && kingSideRook.isFirstMove() && kingSideRook.getType() == ChessPieceType.ROOK) {
-            ArrayList<Move> threats = p.getOpponentPlayer().getLegalMoves();
-            if ((board.getThreats(Position.F1.getValue(), threats).isEmpty())
-                    && (board.getThreats(Position.G1.getValue(), threats).isEmpty())
-                    && !isOpponentPawnInFrontOfTheKing) {
-              //System.out.println("WHITE KING SIDE CASTLING POSSIBLE!");
-              castlingMoves.add(new CastlingMove(
-                      board,
-                      this.getPosition(),
-                      Position.G1,
-                      this,
-                      kingSideRook.getPosition(),
-                      Position.F1,
-                      kingSideRook
-              ));
-            }
-          }
-        }
-      }
-
-      // WHITE QUEEN SIDE CASTLING (LONG CASTLING)
-      if (board.getPiece(Position.B1.getValue()) == null
-              && board.getPiece(Position.C1.getValue()) == null
-              && board.getPiece(Position.D1.getValue()) == null) {
-        if (this.isFirstMove() && this.getPosition() == Position.E1 && !p.isKingInCheck()) {
-          Piece queenSideRook = board.getPiece(Position.A1.getValue());
-          if (queenSideRook != null && queenSideRook.isFirstMove() && queenSideRook.getType() == ChessPieceType.ROOK) {
-            ArrayList<Move> threats = p.getOpponentPlayer().getLegalMoves();
-            if ((board.getThreats(Position.B1.getValue(), threats).isEmpty())
-                    && (board.getThreats(Position.C1.getValue(), threats).isEmpty())
-                    && (board.getThreats(Position.D1.getValue(), threats).isEmpty())
-                    && !isOpponentPawnInFrontOfTheKing) {
-              //System.out.println("WHITE QUEEN SIDE CASTLING POSSIBLE!");
-              castlingMoves.add(new CastlingMove(
-                      board,
-                      this.getPosition(),
-                      Position.C1,
-                      this,
-                      queenSideRook.getPosition(),
-                      Position.D1,
-                      queenSideRook
-              ));
-            }
-          }
-        }
-      }
-    } else {
-      Player p = board.getBlackPlayer();
-
-      Piece pawnAttacker = board.getPiece(Position.E7.getValue());
-      boolean isOpponentPawnInFrontOfTheKing =
-              pawnAttacker != null
-                      && pawnAttacker.getType() == ChessPieceType.PAWN
-                      && pawnAttacker.getColor() != this.getColor();
+    if (!this.isFirstMove()
+            || this.getPosition() != kingStart
+            || board.isSquareAttacked(kingStart.getValue(), opponentColor)) {
+      return castlingMoves;
+    }
 
-      // BLACK KING SIDE CASTLING (SHORT CASTLING)
-      if (board.getPiece(Position.F8.getValue()) == null && board.getPiece(Position.G8.getValue()) == null) {
-        if (this.isFirstMove() && this.getPosition() == Position.E8 && !p.isKingInCheck()) {
-          Piece kingSideRook = board.getPiece(Position.H8.getValue());
-          if (kingSideRook != null && kingSideRook.isFirstMove() && kingSideRook.getType() == ChessPieceType.ROOK) {
-            ArrayList<Move> threats = p.getOpponentPlayer().getLegalMoves();
-            if ((board.getThreats(Position.F8.getValue(), threats).isEmpty())
-                    && (board.getThreats(Position.G8.getValue(), threats).isEmpty())
-                    && !isOpponentPawnInFrontOfTheKing) {
-              //System.out.println("BLACK KING SIDE CASTLING POSSIBLE!");
-              castlingMoves.add(new CastlingMove(
-                      board,
-                      this.getPosition(),
-                      Position.G8,
-                      this,
-                      kingSideRook.getPosition(),
-                      Position.F8,
-                      kingSideRook
-              ));
-            }
-          }
-        }
-      }
+    // KING SIDE CASTLING (SHORT CASTLING)
+    Position f = isWhite ? Position.F1 : Position.F8;
+    Position g = isWhite ? Position.G1 : Position.G8;
+    Piece kingSideRook = board.getPiece(isWhite ? Position.H1.getValue() : Position.H8.getValue());
+    if (board.getPiece(f.getValue()) == null && board.getPiece(g.getValue()) == null
+            && isUnmovedRook(kingSideRook)
+            && !board.isSquareAttacked(f.getValue(), opponentColor)
+            && !board.isSquareAttacked(g.getValue(), opponentColor)) {
+      castlingMoves.add(new CastlingMove(
+              board,
+              this.getPosition(),
+              g,
+              this,
+              kingSideRook.getPosition(),
+              f,
+              kingSideRook
+      ));
+    }
 
-      // BLACK QUEEN SIDE CASTLING (LONG CASTLING)
-      if (board.getPiece(Position.B8.getValue()) == null
-              && board.getPiece(Position.C8.getValue()) == null
-              && board.getPiece(Position.D8.getValue()) == null) {
-        if (this.isFirstMove() && this.getPosition() == Position.E8 && !p.isKingInCheck()) {
-          Piece queenSideRook = board.getPiece(Position.A8.getValue());
-          if (queenSideRook != null && queenSideRook.isFirstMove() && queenSideRook.getType() == ChessPieceType.ROOK) {
-            ArrayList<Move> threats = p.getOpponentPlayer().getLegalMoves();
-            if ((board.getThreats(Position.B8.getValue(), threats).isEmpty())
-                    && (board.getThreats(Position.C8.getValue(), threats).isEmpty())
-                    && (board.getThreats(Position.D8.getValue(), threats).isEmpty())
-                    && !isOpponentPawnInFrontOfTheKing) {
-              //System.out.println("BLACK QUEEN SIDE CASTLING POSSIBLE!");
-              castlingMoves.add(new CastlingMove(
-                      board,
-                      this.getPosition(),
-                      Position.C8,
-                      this,
-                      queenSideRook.getPosition(),
-                      Position.D8,
-                      queenSideRook
-              ));
-            }
-          }
-        }
-      }
+    // QUEEN SIDE CASTLING (LONG CASTLING)
+    // (the Rook crosses B1/B8, the King doesn't: that tile only has to be empty)
+    Position b = isWhite ? Position.B1 : Position.B8;
+    Position c = isWhite ? Position.C1 : Position.C8;
+    Position d = isWhite ? Position.D1 : Position.D8;
+    Piece queenSideRook = board.getPiece(isWhite ? Position.A1.getValue() : Position.A8.getValue());
+    if (board.getPiece(b.getValue()) == null
+            && board.getPiece(c.getValue()) == null
+            && board.getPiece(d.getValue()) == null
+            && isUnmovedRook(queenSideRook)
+            && !board.isSquareAttacked(c.getValue(), opponentColor)
+            && !board.isSquareAttacked(d.getValue(), opponentColor)) {
+      castlingMoves.add(new CastlingMove(
+              board,
+              this.getPosition(),
+              c,
+              this,
+              queenSideRook.getPosition(),
+              d,
+              queenSideRook
+      ));
     }
     return castlingMoves;
   }
+
+  private boolean isUnmovedRook(Piece p) {
+    return p != null
+            && p.getType() == ChessPieceType.ROOK
+            && p.getColor() == this.getColor()
+            && p.isFirstMove();
+  }
 }
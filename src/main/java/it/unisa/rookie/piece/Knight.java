@@ -1,6 +1,8 @@
 package it.unisa.rookie.piece;
 
+import it.unisa.rookie.board.BitBoard;
 import it.unisa.rookie.board.Board;
+import it.unisa.rookie.board.LeapingPieceAttacks;
 import it.unisa.rookie.board.Move;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -17,51 +19,21 @@ public class Knight extends Piece {
 
   @Override
   public Collection<Move> getLegalMoves(Board board) {
-    int[] possibleOffsets = {-17, -15, -10, -6, 6, 10, 15, 17};
-
-    ArrayList<Move> moves = new ArrayList<>();
-
-    int column = this.getPosition().getValue() % 8;
-
-    for (int offset : possibleOffsets) {
-
-      // Avoid weird "jumps" from one end of the board to the other
-      if (column == 0 && (offset == -17 || offset == -10 || offset == 6 || offset == 15)) {
-        continue;
-      }
-
-      if (column == 1 && (offset == -10 || offset == 6)) {
-        continue;
-      }
-
-      if (column == 6 && (offset == -6 || offset == 10)) {
-        continue;
-      }
-
-      if (column == 7 && (offset == -15 || offset == -6 || offset == 10 || offset == 17)) {
-        continue;
-      }
-
-      int candidateDestination = this.getPosition().getValue() + offset;
-
-      if (candidateDestination >= 0 && candidateDestination < 64) {
-        Piece pieceToCapture = board.getPiece(candidateDestination);
-        if (pieceToCapture == null) {
-          moves.add(new Move(board,
-                  this.getPosition(),
-                  Position.values()[candidateDestination],
-                  this)
-          );
-        } else {
-          if (pieceToCapture.getColor() != this.getColor()) {
-            moves.add(new Move(board,
-                    this.getPosition(),
-                    Position.values()[candidateDestination],
-                    this)
-            );
-          }
-        }
-      }
+    BitBoard bitBoard = board.getBitBoard();
+
+    // Empty tiles and opponent pieces
+    long targets = LeapingPieceAttacks.knightAttacks(this.getPosition().getValue())
+            & ~bitBoard.getOccupancy(this.getColor());
+
+    ArrayList<Move> moves = new ArrayList<>(Long.bitCount(targets));
+    while (targets != 0) {
+      int candidateDestination = Long.numberOfTrailingZeros(targets);
+      targets &= targets - 1;
+      moves.add(new Move(board,
+              this.getPosition(),
+              Position.fromValue(candidateDestination),
+              this)
+      );
     }
     return moves;
   }
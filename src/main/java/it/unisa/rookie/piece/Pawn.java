@@ -1,7 +1,9 @@
 package it.unisa.rookie.piece;
 
+import it.unisa.rookie.board.BitBoard;
 import it.unisa.rookie.board.Board;
 import it.unisa.rookie.board.EnPassantCaptureMove;
+import it.unisa.rookie.board.LeapingPieceAttacks;
 import it.unisa.rookie.board.Move;
 import it.unisa.rookie.board.PawnLongMove;
 import it.unisa.rookie.board.PawnPromotionMove;
@@ -20,120 +22,70 @@ public class Pawn extends Piece {
 
   @Override
   public Collection<Move> getLegalMoves(Board board) {
-    int[] possibleOffsets = {8, 16, 7, 9};
-
+    BitBoard bitBoard = board.getBitBoard();
     ArrayList<Move> moves = new ArrayList<>();
 
-    int column = this.getPosition().getValue() % 8;
+    int source = this.getPosition().getValue();
+
+    // Black pawns "move forward" (+8) and White pawns "move backwards" (-8)
+    int forward = (this.getColor() == Color.WHITE) ? -8 : 8;
+
+    // Go 1 tile up / Go 1 tile down
+    int candidateDestination = source + forward;
+    if (bitBoard.isEmpty(candidateDestination)) {
+      // If (promotion tile)
+      if (isPromotionTile(candidateDestination)) {
+        addPromotionMoves(moves, candidateDestination, board);
+      } else {
+        moves.add(new Move(board,
+                this.getPosition(),
+                Position.fromValue(candidateDestination),
+                this)
+        );
+      }
 
-    // Black pawns "move forward" (+1 * offset) and White pawns "move backwards" (-1 * offset)
-    int adjustment;
-    int oppositeAdjustment;
-    if (this.getColor() == Color.BLACK) {
-      adjustment = 1;
-      oppositeAdjustment = -1;
-    } else {
-      adjustment = -1;
-      oppositeAdjustment = 1;
+      // Go 2 tiles up / Go 2 tiles down
+      candidateDestination += forward;
+      if (this.isFirstMove() && bitBoard.isEmpty(candidateDestination)) {
+        moves.add(new PawnLongMove(board,
+                this.getPosition(),
+                Position.fromValue(candidateDestination),
+                this,
+                this)
+        );
+      }
     }
 
-    for (int offset : possibleOffsets) {
-      int candidateDestination = this.getPosition().getValue() + (adjustment * offset);
-
-      if (!(candidateDestination >= 0 && candidateDestination < 64)) {
-        continue;
+    // Attack diagonally
+    long attacks = LeapingPieceAttacks.pawnAttacks(this.getColor(), source);
+    Color opponentColor = (this.getColor() == Color.WHITE) ? Color.BLACK : Color.WHITE;
+    long captures = attacks & bitBoard.getOccupancy(opponentColor);
+    while (captures != 0) {
+      candidateDestination = Long.numberOfTrailingZeros(captures);
+      captures &= captures - 1;
+      // If (promotion tile)
+      if (isPromotionTile(candidateDestination)) {
+        addPromotionMoves(moves, candidateDestination, board);
+      } else {
+        moves.add(new Move(board,
+                this.getPosition(),
+                Position.fromValue(candidateDestination),
+                this)
+        );
       }
+    }
 
-      // Go 1 tile up / Go 1 tile down
-      if (offset == 8 && board.getPiece(candidateDestination) == null) {
-        // If (promotion tile)
-        if (isPromotionTile(candidateDestination)) {
-          addPromotionMoves(moves, candidateDestination, board);
-        } else {
-          moves.add(new Move(board,
-                  this.getPosition(),
-                  Position.values()[candidateDestination],
-                  this)
-          );
-        }
-
-      // Go 2 tiles up / Go 2 tiles down
-      } else if (offset == 16 && this.isFirstMove()) {
-        int candidateDestinationPreviousTile = this.getPosition().getValue() + (adjustment * 8);
-        if (board.getPiece(candidateDestinationPreviousTile) == null
-            && board.getPiece(candidateDestination) == null) {
-          moves.add(new PawnLongMove(board,
-                  this.getPosition(),
-                  Position.values()[candidateDestination],
-                  this,
-                  this)
-          );
-        }
-
-      // Attack diagonally (Black - left | White - right)
-      } else if (offset == 7
-              && !((column == 7 && this.getColor() == Color.WHITE)
-                || (column == 0 && this.getColor() == Color.BLACK))) {
-        if (board.getPiece(candidateDestination) != null) {
-          Piece pieceToCapture = board.getPiece(candidateDestination);
-          if (pieceToCapture.getColor() != this.getColor()) {
-            // If (promotion tile)
-            if (isPromotionTile(candidateDestination)) {
-              addPromotionMoves(moves, candidateDestination, board);
-            } else {
-              moves.add(new Move(board,
-                      this.getPosition(),
-                      Position.values()[candidateDestination],
-                      this)
-              );
-            }
-          }
-          // En Passant Capture
-        } else if (board.getEnPassant() != null
-                && board.getEnPassant().getPosition().getValue() == (this.getPosition().getValue() + oppositeAdjustment)) {
-          Piece enPassantToCapture = board.getEnPassant();
-          if (enPassantToCapture.getColor() != this.getColor()) {
-            moves.add(new EnPassantCaptureMove(board,
-                    this.getPosition(),
-                    Position.values()[candidateDestination],
-                    this,
-                    enPassantToCapture)
-            );
-          }
-        }
-
-      // Attack diagonally (Black - right | White - left)
-      } else if (offset == 9
-              && !((column == 0 && this.getColor() == Color.WHITE)
-                || (column == 7 && this.getColor() == Color.BLACK))) {
-        if (board.getPiece(candidateDestination) != null) {
-          Piece pieceToCapture = board.getPiece(candidateDestination);
-          if (pieceToCapture.getColor() != this.getColor()) {
-            // If (promotion tile)
-            if (isPromotionTile(candidateDestination)) {
-              addPromotionMoves(moves, candidateDestination, board);
-            } else {
-              moves.add(new Move(board,
-                      this.getPosition(),
-                      Position.values()[candidateDestination],
-                      this)
-              );
-            }
-          }
-          // En Passant Capture
-        }  else if (board.getEnPassant() != null
-                && board.getEnPassant().getPosition().getValue() == (this.getPosition().getValue() - oppositeAdjustment)) {
-          Piece enPassantToCapture = board.getEnPassant();
-          if (enPassantToCapture.getColor() != this.getColor()) {
-            moves.add(new EnPassantCaptureMove(board,
-                    this.getPosition(),
-                    Position.values()[candidateDestination],
-                    this,
-                    enPassantToCapture)
-            );
-          }
-        }
-      }
+    // En Passant Capture
+    int enPassantSquare = bitBoard.getEnPassantSquare();
+    if (enPassantSquare != BitBoard.NO_SQUARE
+            && (attacks & BitBoard.bit(enPassantSquare)) != 0
+            && board.getEnPassant().getColor() != this.getColor()) {
+      moves.add(new EnPassantCaptureMove(board,
+              this.getPosition(),
+              Position.fromValue(enPassantSquare),
+              this,
+              board.getEnPassant())
+      );
     }
     return moves;
   }
@@ -149,48 +101,48 @@ public class Pawn extends Piece {
   private void addPromotionMoves(ArrayList<Move> moves, int destination, Board board) {
     Piece pawnToQueen = new Queen(
             this.getColor(),
-            Position.values()[destination],
+            Position.fromValue(destination),
             false
     );
     moves.add(new PawnPromotionMove(board,
             this.getPosition(),
-            Position.values()[destination],
+            Position.fromValue(destination),
             this,
             pawnToQueen)
     );
 
     Piece pawnToRook = new Rook(
             this.getColor(),
-            Position.values()[destination],
+            Position.fromValue(destination),
             false
     );
     moves.add(new PawnPromotionMove(board,
             this.getPosition(),
-            Position.values()[destination],
+            Position.fromValue(destination),
             this,
             pawnToRook)
     );
 
     Piece pawnToBishop = new Bishop(
             this.getColor(),
-            Position.values()[destination],
+            Position.fromValue(destination),
             false
     );
     moves.add(new PawnPromotionMove(board,
             this.getPosition(),
-            Position.values()[destination],
+            Position.fromValue(destination),
             this,
             pawnToBishop)
     );
 
     Piece pawnToKnight = new Knight(
             this.getColor(),
-            Position.values()[destination],
+            Position.fromValue(destination),
             false
     );
     moves.add(new PawnPromotionMove(board,
             this.getPosition(),
-            Position.values()[destination],
+            Position.fromValue(destination),
             this,
             pawnToKnight)
     );
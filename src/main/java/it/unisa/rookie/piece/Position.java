@@ -77,6 +77,13 @@ public enum Position {
   private final int x;
   private final int y;
 
+  // values() returns a new copy on each call
+  private static final Position[] POSITIONS = values();
+
+  public static Position fromValue(int value) {
+    return POSITIONS[value];
+  }
+
   public int getValue() {
     return this.value;
   }
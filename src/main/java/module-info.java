@@ -3,5 +3,6 @@ module it.unisa {
     exports it.unisa.rookie.ai;
     exports it.unisa.rookie.board;
     exports it.unisa.rookie.gui;
+    exports it.unisa.rookie.perft;
     exports it.unisa.rookie.piece;
 }